@@ -5,13 +5,11 @@
 
 package net.neoforged.neoforge.attachment;
 
-import java.util.IdentityHashMap;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.Objects;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.Tag;
 import net.minecraft.resources.ResourceLocation;
-import net.neoforged.fml.loading.FMLLoader;
 import net.neoforged.neoforge.registries.NeoForgeRegistries;
 import org.jetbrains.annotations.MustBeInvokedByOverriders;
 import org.jetbrains.annotations.Nullable;
@@ -22,52 +20,134 @@ import org.jetbrains.annotations.Nullable;
  */
 public abstract class AttachmentHolder implements IAttachmentHolder {
     public static final String ATTACHMENTS_NBT_KEY = "neoforge:attachments";
-    private static final boolean IN_DEV = !FMLLoader.isProduction();
+    private static final Object[] NO_ATTACHMENTS = new Object[0];
 
-    private static void validateAttachmentType(AttachmentType<?> type) {
+    /**
+     * {@return the dense index of the attachment type, after checking that it is registered}
+     */
+    private static int indexOf(AttachmentType<?> type) {
         Objects.requireNonNull(type);
-        if (!IN_DEV) return;
-
-        if (!NeoForgeRegistries.ATTACHMENT_TYPES.containsValue(type)) {
+        int index = type.index;
+        if (index < 0) {
             throw new IllegalArgumentException("Data attachment type with default value " + type.defaultValueSupplier.get() + " must be registered!");
         }
+        return index;
+    }
+
+    /**
+     * Attachment values, indexed by {@link AttachmentType#index}. {@code null} entries are absent attachments.
+     * The array is only grown up to the highest index that is actually used.
+     */
+    private Object[] attachments = NO_ATTACHMENTS;
+
+    @Nullable
+    final Object getAttachment(int index) {
+        var attachments = this.attachments;
+        return index < attachments.length ? attachments[index] : null;
+    }
+
+    @Nullable
+    final Object putAttachment(int index, Object data) {
+        if (index >= attachments.length)
+            attachments = Arrays.copyOf(attachments, index + 1);
+        var previous = attachments[index];
+        attachments[index] = data;
+        return previous;
+    }
+
+    /**
+     * Last serialized form of attachments whose type has {@linkplain AttachmentType.Builder#immutable() immutable values},
+     * indexed like {@link #attachments}, or {@code null} if nothing was cached yet.
+     */
+    @Nullable
+    private SerializedAttachment[] serializedAttachments = null;
+
+    /**
+     * The serialized form of an attachment, together with the value it was created from.
+     * Immutable values can only change by being replaced, so the entry is valid as long as the same value is attached.
+     * Entries are immutable, so holders that are serialized from several threads at worst encode a value again.
+     */
+    private record SerializedAttachment(Object value, Tag tag) {}
+
+    /**
+     * {@return the serialized form of an attachment, reusing the cached form if the attachment type has immutable values}
+     * The returned tag may be shared with the cache and must not be modified.
+     */
+    final Tag getSerializedAttachment(int index, AttachmentType<?> type, Object data) {
+        var serializer = (IAttachmentSerializer<?, Object>) type.serializer;
+        if (!type.immutable) {
+            AttachmentInternals.reencodedSerializations.increment();
+            return serializer.write(data);
+        }
+
+        var serialized = serializedAttachments;
+        if (serialized != null && index < serialized.length) {
+            var entry = serialized[index];
+            if (entry != null && entry.value == data) {
+                AttachmentInternals.skippedSerializations.increment();
+                return entry.tag;
+            }
+        }
+
+        Tag tag = serializer.write(data);
+        AttachmentInternals.reencodedSerializations.increment();
+        if (serialized == null || index >= serialized.length)
+            serializedAttachments = serialized = serialized == null ? new SerializedAttachment[Math.max(index + 1, attachments.length)] : Arrays.copyOf(serialized, Math.max(index + 1, attachments.length));
+        serialized[index] = new SerializedAttachment(data, tag);
+        return tag;
     }
 
-    final Map<AttachmentType<?>, Object> attachments = new IdentityHashMap<>();
+    /**
+     * {@return the length of the attachment array; all indices at or above this length are absent}
+     */
+    final int attachmentsLength() {
+        return attachments.length;
+    }
 
     @Override
     public final boolean hasData(AttachmentType<?> type) {
-        validateAttachmentType(type);
-        return attachments.containsKey(type);
+        return getAttachment(indexOf(type)) != null;
     }
 
     @Override
     public final <T> T getData(AttachmentType<T> type) {
-        validateAttachmentType(type);
-        return (T) attachments.computeIfAbsent(type, t -> Objects.requireNonNull(t.defaultValueSupplier.get()));
+        int index = indexOf(type);
+        var data = getAttachment(index);
+        if (data == null) {
+            data = Objects.requireNonNull(type.defaultValueSupplier.get());
+            putAttachment(index, data);
+        }
+        return (T) data;
     }
 
     @Override
     @MustBeInvokedByOverriders
     public <T> @Nullable T setData(AttachmentType<T> type, T data) {
-        validateAttachmentType(type);
+        int index = indexOf(type);
         Objects.requireNonNull(data);
-        return (T) attachments.put(type, data);
+        return (T) putAttachment(index, data);
     }
 
     /**
      * Writes the serializable attachments to a tag.
      * Returns {@code null} if there are no serializable attachments.
+     *
+     * <p>Attachments of types with {@linkplain AttachmentType.Builder#immutable() immutable values} are only encoded again
+     * if they were replaced since they were last serialized; a copy of their previous serialized form is used otherwise.
      */
     @Nullable
     public final CompoundTag serializeAttachments() {
         CompoundTag tag = null;
-        for (var entry : attachments.entrySet()) {
-            var type = entry.getKey();
+        var attachments = this.attachments;
+        for (int i = 0; i < attachments.length; ++i) {
+            var data = attachments[i];
+            if (data == null)
+                continue;
+            var type = AttachmentInternals.typeByIndex(i);
             if (type.serializer != null) {
                 if (tag == null)
                     tag = new CompoundTag();
-                tag.put(NeoForgeRegistries.ATTACHMENT_TYPES.getKey(type).toString(), ((IAttachmentSerializer<?, Object>) type.serializer).write(entry.getValue()));
+                tag.put(NeoForgeRegistries.ATTACHMENT_TYPES.getKey(type).toString(), getSerializedAttachment(i, type, data).copy());
             }
         }
         return tag;
@@ -83,7 +163,7 @@ public abstract class AttachmentHolder implements IAttachmentHolder {
             if (keyLocation != null) {
                 var type = NeoForgeRegistries.ATTACHMENT_TYPES.get(keyLocation);
                 if (type != null && type.serializer != null) {
-                    attachments.put(type, ((IAttachmentSerializer<Tag, ?>) type.serializer).read(tag.get(key)));
+                    putAttachment(type.index, ((IAttachmentSerializer<Tag, ?>) type.serializer).read(tag.get(key)));
                 }
             }
         }
@@ -99,25 +179,29 @@ public abstract class AttachmentHolder implements IAttachmentHolder {
      * @return {@code true} if the attachments are compatible, {@code false} otherwise
      */
     public static <H extends AttachmentHolder> boolean areAttachmentsCompatible(H first, H second) {
-        for (var entry : first.attachments.entrySet()) {
-            AttachmentType<Object> type = (AttachmentType<Object>) entry.getKey();
-            if (type.serializer != null) {
-                var otherData = second.attachments.get(type);
-                if (otherData == null)
-                    // TODO: cache serialization of default value?
-                    otherData = type.defaultValueSupplier.get();
-                if (!type.comparator.areCompatible(entry.getValue(), otherData))
+        int length = Math.max(first.attachmentsLength(), second.attachmentsLength());
+        for (int i = 0; i < length; ++i) {
+            var firstData = first.getAttachment(i);
+            var secondData = second.getAttachment(i);
+            if (firstData == null && secondData == null)
+                continue;
+
+            AttachmentType<Object> type = (AttachmentType<Object>) AttachmentInternals.typeByIndex(i);
+            if (type.serializer == null)
+                continue;
+
+            if (type.hasDefaultComparator) {
+                // Compare the serialized forms directly, reusing the cached ones for immutable values
+                var firstTag = firstData == null ? type.getSerializedDefault() : first.getSerializedAttachment(i, type, firstData);
+                var secondTag = secondData == null ? type.getSerializedDefault() : second.getSerializedAttachment(i, type, secondData);
+                if (!firstTag.equals(secondTag))
                     return false;
-            }
-        }
-        for (var entry : second.attachments.entrySet()) {
-            AttachmentType<Object> type = (AttachmentType<Object>) entry.getKey();
-            if (type.serializer != null) {
-                var data = first.attachments.get(type);
-                if (data != null)
-                    continue; // already checked in the first loop
-                data = type.defaultValueSupplier.get();
-                if (!type.comparator.areCompatible(entry.getValue(), data))
+            } else {
+                if (firstData == null)
+                    firstData = type.getCanonicalDefault();
+                else if (secondData == null)
+                    secondData = type.getCanonicalDefault();
+                if (!type.comparator.areCompatible(firstData, secondData))
                     return false;
             }
         }
@@ -5,7 +5,11 @@
 
 package net.neoforged.neoforge.attachment;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Predicate;
+import net.minecraft.core.Registry;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.Tag;
 import net.minecraft.world.item.Item;
@@ -27,6 +31,53 @@ public final class AttachmentInternals {
      */
     private static final String EMPTY_TAG_KEY = "neoforge:empty";
 
+    /**
+     * Number of attachments that were encoded to be saved or compared.
+     */
+    static final LongAdder reencodedSerializations = new LongAdder();
+    /**
+     * Number of attachments for which the previously serialized form was reused, see {@link AttachmentType.Builder#immutable()}.
+     */
+    static final LongAdder skippedSerializations = new LongAdder();
+
+    /**
+     * {@return the number of attachments that had to be encoded to be saved or compared, since startup}
+     */
+    public static long getReencodedSerializations() {
+        return reencodedSerializations.sum();
+    }
+
+    /**
+     * {@return the number of attachments that did not need to be encoded again to be saved or compared, since startup}
+     */
+    public static long getSkippedSerializations() {
+        return skippedSerializations.sum();
+    }
+
+    /**
+     * All the registered attachment types, by {@link AttachmentType#index}.
+     */
+    private static volatile AttachmentType<?>[] typesByIndex = new AttachmentType<?>[0];
+
+    /**
+     * Assigns a dense index to the attachment types that do not have one yet.
+     * Indices are never reassigned, so that existing holders remain valid if the registry is baked again.
+     */
+    public static synchronized void assignIndices(Registry<AttachmentType<?>> registry) {
+        var types = new ArrayList<>(Arrays.asList(typesByIndex));
+        for (var type : registry) {
+            if (type.index < 0) {
+                type.index = types.size();
+                types.add(type);
+            }
+        }
+        typesByIndex = types.toArray(AttachmentType<?>[]::new);
+    }
+
+    static AttachmentType<?> typeByIndex(int index) {
+        return typesByIndex[index];
+    }
+
     @Nullable
     public static CompoundTag addAttachmentsToTag(@Nullable CompoundTag tag, ItemStack stack, boolean fullCopy) {
         // Store all serializable attachments as an nbt subtag
@@ -79,12 +130,16 @@ public final class AttachmentInternals {
      * Copy some attachments to another holder.
      */
     private static <H extends AttachmentHolder> void copyAttachments(H from, H to, Predicate<AttachmentType<?>> filter) {
-        for (var entry : from.attachments.entrySet()) {
-            AttachmentType<?> type = entry.getKey();
+        for (int i = 0; i < from.attachmentsLength(); ++i) {
+            var data = from.getAttachment(i);
+            if (data == null)
+                continue;
+            AttachmentType<?> type = typeByIndex(i);
             @SuppressWarnings("unchecked")
             var serializer = (IAttachmentSerializer<Tag, Object>) type.serializer;
             if (serializer != null && filter.test(type)) {
-                to.attachments.put(type, serializer.read(serializer.write(entry.getValue())));
+                // Immutable values can be shared, others are copied by serializing them
+                to.putAttachment(i, type.immutable ? data : serializer.read(serializer.write(data)));
             }
         }
     }
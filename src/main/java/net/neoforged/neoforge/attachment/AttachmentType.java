@@ -54,13 +54,57 @@ public final class AttachmentType<T> {
     @Nullable
     final IAttachmentSerializer<?, T> serializer;
     final boolean copyOnDeath;
+    /**
+     * {@code true} if attached values are never modified in place, see {@link Builder#immutable()}.
+     */
+    final boolean immutable;
     final IAttachmentComparator<T> comparator;
+    /**
+     * {@code true} if the comparator compares the serialized forms, in which case they can be compared directly.
+     */
+    final boolean hasDefaultComparator;
+    /**
+     * Default value used for comparisons with holders that do not have this attachment.
+     * Lazily created, and never handed out to holders since it might be mutable.
+     * Comparisons may happen on several threads, the fields are volatile so that the values are safely published.
+     */
+    @Nullable
+    private volatile T canonicalDefault;
+    @Nullable
+    private volatile Tag serializedDefault;
+    /**
+     * Dense index of this type, used to store attachments in arrays.
+     * Assigned when the attachment type registry is baked, {@code -1} until then.
+     */
+    int index = -1;
 
     private AttachmentType(Builder<T> builder) {
         this.defaultValueSupplier = builder.defaultValueSupplier;
         this.serializer = builder.serializer;
         this.copyOnDeath = builder.copyOnDeath;
+        this.immutable = builder.immutable;
         this.comparator = builder.comparator != null ? builder.comparator : defaultComparator(serializer);
+        this.hasDefaultComparator = builder.comparator == null && serializer != null;
+    }
+
+    /**
+     * {@return a shared default value, for read-only uses such as comparisons}
+     */
+    T getCanonicalDefault() {
+        var ret = canonicalDefault;
+        if (ret == null)
+            canonicalDefault = ret = Objects.requireNonNull(defaultValueSupplier.get());
+        return ret;
+    }
+
+    /**
+     * {@return the serialized form of the default value, which must not be modified}
+     */
+    Tag getSerializedDefault() {
+        var ret = serializedDefault;
+        if (ret == null)
+            serializedDefault = ret = Objects.requireNonNull(serializer).write(getCanonicalDefault());
+        return ret;
     }
 
     private static <T> IAttachmentComparator<T> defaultComparator(IAttachmentSerializer<?, T> serializer) {
@@ -106,6 +150,7 @@ public final class AttachmentType<T> {
         @Nullable
         private IAttachmentSerializer<?, T> serializer;
         private boolean copyOnDeath;
+        private boolean immutable;
         @Nullable
         private IAttachmentComparator<T> comparator;
 
@@ -161,6 +206,21 @@ public final class AttachmentType<T> {
             return this;
         }
 
+        /**
+         * Declares that the values of this attachment type are never modified once they are attached.
+         * Changes must instead be made by attaching a new value with {@link IAttachmentHolder#setData}.
+         *
+         * <p>Holders then reuse the serialized form of a value until it is replaced,
+         * instead of encoding it again every time they are saved or compared.
+         * Modifications made in place to a value of an immutable attachment type might not be saved.
+         */
+        public Builder<T> immutable() {
+            if (this.serializer == null)
+                throw new IllegalStateException("immutable requires a serializer");
+            this.immutable = true;
+            return this;
+        }
+
         /**
          * Overrides the comparator for this attachment type.
          *
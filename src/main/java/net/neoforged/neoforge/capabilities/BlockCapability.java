@@ -5,6 +5,7 @@
 
 package net.neoforged.neoforge.capabilities;
 
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
@@ -135,26 +136,64 @@ public final class BlockCapability<T, C> extends BaseCapability<T, C> {
     }
 
     final Map<Block, List<IBlockCapabilityProvider<T, C>>> providers = new IdentityHashMap<>();
+    /**
+     * Frozen copy of {@link #providers}, built once registration is over.
+     * Blocks without any provider are absent, which allows rejecting them before the block entity is looked up.
+     */
+    @Nullable
+    private Reference2ObjectOpenHashMap<Block, IBlockCapabilityProvider<T, C>[]> frozenProviders = null;
+
+    /**
+     * Freezes the registered providers into a flat lookup table. Called once {@link RegisterCapabilitiesEvent} has been fired.
+     */
+    @SuppressWarnings("unchecked")
+    void freezeProviders() {
+        var frozen = new Reference2ObjectOpenHashMap<Block, IBlockCapabilityProvider<T, C>[]>(providers.size());
+        for (var entry : providers.entrySet()) {
+            if (!entry.getValue().isEmpty())
+                frozen.put(entry.getKey(), entry.getValue().toArray(IBlockCapabilityProvider[]::new));
+        }
+        frozen.trim();
+        frozenProviders = frozen;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    private IBlockCapabilityProvider<T, C>[] getProviders(Block block) {
+        var frozen = frozenProviders;
+        if (frozen != null)
+            return frozen.get(block);
+
+        // Registration is still in progress
+        var list = providers.get(block);
+        return list == null || list.isEmpty() ? null : list.toArray(IBlockCapabilityProvider[]::new);
+    }
 
     @ApiStatus.Internal
     @Nullable
     public T getCapability(Level level, BlockPos pos, @Nullable BlockState state, @Nullable BlockEntity blockEntity, C context) {
-        // Convert pos to immutable, it's easy to forget otherwise
-        pos = pos.immutable();
-
-        // Get block state and block entity if they were not provided
-        if (blockEntity == null) {
-            if (state == null)
+        // Get block state if it was not provided
+        if (state == null) {
+            if (blockEntity == null)
                 state = level.getBlockState(pos);
-
-            if (state.hasBlockEntity())
-                blockEntity = level.getBlockEntity(pos);
-        } else {
-            if (state == null)
+            else
                 state = blockEntity.getBlockState();
         }
 
-        for (var provider : providers.getOrDefault(state.getBlock(), List.of())) {
+        // Fast path: most blocks do not expose a given capability,
+        // so check for providers before converting the position or querying the block entity.
+        var blockProviders = getProviders(state.getBlock());
+        if (blockProviders == null)
+            return null;
+
+        // Convert pos to immutable, it's easy to forget otherwise
+        pos = pos.immutable();
+
+        // Get block entity if it was not provided
+        if (blockEntity == null && state.hasBlockEntity())
+            blockEntity = level.getBlockEntity(pos);
+
+        for (var provider : blockProviders) {
             var ret = provider.getCapability(level, pos, state, blockEntity, context);
             if (ret != null)
                 return ret;
@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.neoforge.capabilities;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A cache for block capabilities at many positions at once, for example all the endpoints of a logistics network.
+ *
+ * <p>Behaves like one {@link BlockCapabilityCache} per entry, but only registers one listener per chunk section
+ * and stores all the results in flat arrays. Entries are identified by their index, in the order that was passed
+ * to {@link #create}.
+ *
+ * <p>The cache is invalidated when the level is notified of a change via {@link Level#invalidateCapabilities(BlockPos)}.
+ * Invalidated entries are accumulated in a bit set, which can be retrieved with {@link #pollInvalidated()}
+ * to only refresh the entries that actually changed.
+ *
+ * <p>Instances are automatically cleared by the garbage collector when they are no longer in use.
+ */
+public final class BlockCapabilityGroupCache<T, C> {
+    /**
+     * Creates a new group cache instance and registers it to the level.
+     *
+     * @param capability the capability
+     * @param level      the level
+     * @param positions  the position of each entry
+     * @param contexts   extra context for the query of each entry, must have the same size as {@code positions}
+     */
+    public static <T, C> BlockCapabilityGroupCache<T, C> create(BlockCapability<T, C> capability, ServerLevel level, List<BlockPos> positions, List<C> contexts) {
+        return create(capability, level, positions, contexts, () -> true, () -> {});
+    }
+
+    /**
+     * Creates a new group cache instance with an invalidation listener, and registers it to the level.
+     *
+     * <p>The same details as for {@link BlockCapabilityCache#create(BlockCapability, ServerLevel, BlockPos, Object, BooleanSupplier, Runnable)}
+     * apply. In particular, an entry does not receive notifications before {@link #getCapability(int)} is called for it.
+     * The invalidation listener is called at most once per invalidated position or chunk section, regardless of how many entries were invalidated.
+     * Invalidating a whole chunk may therefore call it once for each section of the chunk that contains entries;
+     * use {@link #pollInvalidated()} to process all the invalidated entries at once.
+     *
+     * @param capability           the capability
+     * @param level                the level
+     * @param positions            the position of each entry
+     * @param contexts             extra context for the query of each entry, must have the same size as {@code positions}
+     * @param isValid              a function to check if the listener still wants to receive notifications.
+     * @param invalidationListener the invalidation listener. Will be called whenever the capability of some entries might have changed.
+     */
+    public static <T, C> BlockCapabilityGroupCache<T, C> create(BlockCapability<T, C> capability, ServerLevel level, List<BlockPos> positions, List<C> contexts, BooleanSupplier isValid, Runnable invalidationListener) {
+        Objects.requireNonNull(capability);
+        Objects.requireNonNull(isValid);
+        Objects.requireNonNull(invalidationListener);
+        if (positions.size() != contexts.size())
+            throw new IllegalArgumentException("Mismatched number of positions (" + positions.size() + ") and contexts (" + contexts.size() + ")");
+
+        var cache = new BlockCapabilityGroupCache<>(capability, level, positions, contexts, isValid, invalidationListener);
+        for (int i = 0; i < cache.sectionPositions.length; ++i)
+            level.registerCapabilityListener(SectionPos.of(cache.sectionPositions[i]), cache.sectionListeners[i]);
+        return cache;
+    }
+
+    private final BlockCapability<T, C> capability;
+    private final ServerLevel level;
+    private final BlockPos[] positions;
+    private final Object[] contexts;
+    private final Object[] cachedCaps;
+    /**
+     * Packed block position -> indices of the entries at that position.
+     */
+    private final Long2ObjectMap<int[]> entriesByPos;
+    /**
+     * Packed section position -> indices of the entries in that section.
+     */
+    private final Long2ObjectMap<int[]> entriesBySection;
+    private final long[] sectionPositions;
+    /**
+     * Strong references to the section listeners, since the level only holds weak references.
+     */
+    private final ISectionCapabilityInvalidationListener[] sectionListeners;
+
+    /**
+     * Entries whose cached capability is valid, i.e. that will be reported when invalidated.
+     * Calling {@link #getCapability(int)} sets the bit of the queried entry.
+     */
+    private final BitSet cacheValid;
+    /**
+     * Entries that were invalidated since the last call to {@link #pollInvalidated()}.
+     */
+    private final BitSet invalidated;
+
+    private boolean canQuery = true;
+    private final BooleanSupplier isValid;
+    private final Runnable invalidationListener;
+
+    private BlockCapabilityGroupCache(BlockCapability<T, C> capability, ServerLevel level, List<BlockPos> positions, List<C> contexts, BooleanSupplier isValid, Runnable invalidationListener) {
+        this.capability = capability;
+        this.level = level;
+        this.isValid = isValid;
+        this.invalidationListener = invalidationListener;
+
+        int size = positions.size();
+        this.positions = new BlockPos[size];
+        this.contexts = contexts.toArray();
+        this.cachedCaps = new Object[size];
+        this.cacheValid = new BitSet(size);
+        this.invalidated = new BitSet(size);
+
+        var byPos = new Long2ObjectOpenHashMap<IntArrayList>();
+        var bySection = new Long2ObjectOpenHashMap<IntArrayList>();
+        for (int i = 0; i < size; ++i) {
+            var pos = positions.get(i).immutable();
+            this.positions[i] = pos;
+            byPos.computeIfAbsent(pos.asLong(), l -> new IntArrayList()).add(i);
+            bySection.computeIfAbsent(SectionPos.asLong(pos), l -> new IntArrayList()).add(i);
+        }
+
+        this.entriesByPos = toArrays(byPos);
+        this.entriesBySection = toArrays(bySection);
+        this.sectionPositions = entriesBySection.keySet().toLongArray();
+
+        var listeners = new ArrayList<ISectionCapabilityInvalidationListener>(sectionPositions.length);
+        for (long sectionPos : sectionPositions) {
+            listeners.add(pos -> onInvalidate(pos == null ? entriesBySection.get(sectionPos) : entriesByPos.get(pos.asLong())));
+        }
+        this.sectionListeners = listeners.toArray(ISectionCapabilityInvalidationListener[]::new);
+    }
+
+    private static Long2ObjectMap<int[]> toArrays(Long2ObjectMap<IntArrayList> lists) {
+        var ret = new Long2ObjectOpenHashMap<int[]>(lists.size());
+        for (var entry : lists.long2ObjectEntrySet()) {
+            ret.put(entry.getLongKey(), entry.getValue().toIntArray());
+        }
+        return ret;
+    }
+
+    private boolean onInvalidate(@Nullable int[] entries) {
+        boolean anyInvalidated = false;
+        if (entries != null) {
+            for (int entry : entries) {
+                if (cacheValid.get(entry)) {
+                    cacheValid.clear(entry);
+                    cachedCaps[entry] = null;
+                    invalidated.set(entry);
+                    anyInvalidated = true;
+                }
+            }
+        }
+
+        if (!anyInvalidated) {
+            // already invalidated, just check if the cache should be removed
+            return isValid.getAsBoolean();
+        }
+
+        // disable queries for now
+        canQuery = false;
+
+        if (isValid.getAsBoolean()) {
+            // notify
+            invalidationListener.run();
+            // re-enable queries
+            canQuery = true;
+            return true;
+        } else {
+            // not valid anymore: keep queries disabled and return false
+            return false;
+        }
+    }
+
+    public ServerLevel level() {
+        return level;
+    }
+
+    /**
+     * {@return the number of entries in this cache}
+     */
+    public int size() {
+        return positions.length;
+    }
+
+    public BlockPos pos(int index) {
+        return positions[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    public C context(int index) {
+        return (C) contexts[index];
+    }
+
+    /**
+     * Gets the capability instance of an entry, or {@code null} if the capability is not present.
+     *
+     * <p>If the position of the entry is not loaded, this method will return {@code null}.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public T getCapability(int index) {
+        if (!canQuery)
+            throw new IllegalStateException("Do not call getCapability on an invalid cache or from the invalidation listener!");
+
+        if (!cacheValid.get(index)) {
+            var pos = positions[index];
+            if (!level.isLoaded(pos)) {
+                // If the position is not loaded, return no capability for now.
+                // The cache will be invalidated when the chunk is loaded.
+                cachedCaps[index] = null;
+            } else {
+                cachedCaps[index] = level.getCapability(capability, pos, (C) contexts[index]);
+            }
+            cacheValid.set(index);
+        }
+
+        return (T) cachedCaps[index];
+    }
+
+    /**
+     * Returns the entries that were invalidated since the last call to this method, and resets them.
+     * Entries that were never queried with {@link #getCapability(int)} are never reported.
+     *
+     * @return a new bit set, with one bit set for each invalidated entry index
+     */
+    public BitSet pollInvalidated() {
+        var ret = (BitSet) invalidated.clone();
+        invalidated.clear();
+        return ret;
+    }
+}
@@ -47,6 +47,9 @@ public class CapabilityHooks {
         var event = new RegisterCapabilitiesEvent();
         ModLoader.get().postEventWrapContainerInModOrder(event);
 
+        for (var capability : BlockCapability.getAll())
+            capability.freezeProviders();
+
         initFinished = true;
     }
 
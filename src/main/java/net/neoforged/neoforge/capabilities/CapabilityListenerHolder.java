@@ -5,132 +5,332 @@
 
 package net.neoforged.neoforge.capabilities;
 
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import it.unimi.dsi.fastutil.longs.Long2ReferenceMap;
 import it.unimi.dsi.fastutil.longs.Long2ReferenceOpenHashMap;
-import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
-import java.util.Set;
+import java.util.Arrays;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
 import net.minecraft.world.level.ChunkPos;
 import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Holder for capability listeners associated to a level.
+ *
+ * <p>Listeners are stored in one slab per chunk: each listener occupies a slot in flat arrays,
+ * and slots registered at the same position are chained together.
+ * Each slot has a generation counter that is incremented when the slot is freed,
+ * which allows garbage-collected references to be matched to their slot without any hashing,
+ * and stale references to be ignored.
  */
 // For now, we don't invalidate the cache when the level is unloaded but the chunk unload events do not fire.
 // This can be re-evaluated in the future.
 @ApiStatus.Internal
 public class CapabilityListenerHolder {
     /**
-     * Map of chunk pos -> block pos -> listeners map.
+     * Map of chunk pos -> listeners slab.
      *
-     * <p>We have a two-level map to efficiently invalidate entire chunks at once.
+     * <p>We group by chunk to efficiently invalidate entire chunks at once.
      */
-    private final Long2ReferenceMap<Long2ReferenceMap<Set<ListenerReference>>> byChunkThenBlock = new Long2ReferenceOpenHashMap<>();
+    private final Long2ReferenceMap<ChunkListeners> byChunk = new Long2ReferenceOpenHashMap<>();
     /**
      * Reference queue for the listener references.
-     * This allows us to listen to reference garbage collection, and remove empty entries from {@link #byChunkThenBlock}.
+     * This allows us to listen to reference garbage collection, and free the corresponding slots.
      */
-    private final ReferenceQueue<ICapabilityInvalidationListener> queue = new ReferenceQueue<>();
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+    private int listenerCount = 0;
+    private int invalidationsThisTick = 0;
+    private int invalidationsLastTick = 0;
 
     /**
      * Adds a listener.
      */
     public void addListener(BlockPos pos, ICapabilityInvalidationListener listener) {
-        pos = pos.immutable();
-        var chunkHolder = byChunkThenBlock.computeIfAbsent(ChunkPos.asLong(pos), l -> new Long2ReferenceOpenHashMap<>());
-        var listenersSet = chunkHolder.computeIfAbsent(pos.asLong(), l -> new ObjectOpenHashSet<>());
-
-        var reference = new ListenerReference(queue, pos, listener);
-        if (!listenersSet.add(reference)) {
-            // Clear the reference immediately if it was a duplicate.
-            reference.clear();
+        getOrCreateChunk(ChunkPos.asLong(pos)).add(pos.asLong(), false, listener);
+    }
+
+    /**
+     * Adds a listener that is notified for all positions in a chunk section.
+     */
+    public void addSectionListener(SectionPos sectionPos, ISectionCapabilityInvalidationListener listener) {
+        getOrCreateChunk(sectionPos.chunk().toLong()).add(sectionPos.asLong(), true, listener);
+    }
+
+    private ChunkListeners getOrCreateChunk(long chunkPos) {
+        var chunk = byChunk.get(chunkPos);
+        if (chunk == null) {
+            chunk = new ChunkListeners(chunkPos);
+            byChunk.put(chunkPos, chunk);
         }
+        return chunk;
     }
 
     /**
      * Invalidates listeners at a specific block position.
      */
     public void invalidatePos(BlockPos pos) {
-        var chunkHolder = byChunkThenBlock.get(ChunkPos.asLong(pos));
-        if (chunkHolder != null) {
-            var caches = chunkHolder.get(pos.asLong());
-            if (caches != null)
-                invalidateList(caches);
+        var chunk = byChunk.get(ChunkPos.asLong(pos));
+        if (chunk != null) {
+            chunk.invalidateChain(pos.asLong(), false, null);
+            chunk.invalidateChain(SectionPos.asLong(pos), true, pos);
+            removeIfEmpty(chunk);
         }
     }
 
     /**
      * Invalidates listeners at a specific chunk position.
+     * Slots of listeners that are no longer valid are evicted in bulk,
+     * and the whole slab is dropped if it ends up empty.
      */
     public void invalidateChunk(ChunkPos chunkPos) {
-        var chunkHolder = byChunkThenBlock.get(chunkPos.toLong());
-        if (chunkHolder != null) {
-            for (var caches : chunkHolder.values())
-                invalidateList(caches);
+        var chunk = byChunk.get(chunkPos.toLong());
+        if (chunk != null) {
+            chunk.invalidateAll();
+            removeIfEmpty(chunk);
         }
     }
 
-    private void invalidateList(Set<ListenerReference> caches) {
-        caches.removeIf(ref -> {
-            var listener = ref.get();
-            return listener == null || !listener.onInvalidate();
-        });
+    private void removeIfEmpty(ChunkListeners chunk) {
+        if (chunk.size == 0 && byChunk.get(chunk.chunkPos) == chunk)
+            byChunk.remove(chunk.chunkPos);
     }
 
     /**
-     * Poll the reference queue, and remove garbage-collected listener references entries from {@link #byChunkThenBlock}.
+     * Poll the reference queue, and free the slots of garbage-collected listener references.
+     * Also rolls over the per-tick invalidation counter, since this is called once per tick.
      */
     public void clean() {
+        invalidationsLastTick = invalidationsThisTick;
+        invalidationsThisTick = 0;
+
         while (true) {
             ListenerReference ref = (ListenerReference) queue.poll();
             if (ref == null)
                 return;
 
-            var chunkHolder = byChunkThenBlock.get(ChunkPos.asLong(ref.pos));
-            if (chunkHolder == null)
-                continue;
+            var chunk = ref.owner;
+            // If the generation does not match, the slot was already freed (and maybe reused).
+            if (chunk.generations[ref.slot] == ref.generation) {
+                chunk.unlink(ref.slot);
+                removeIfEmpty(chunk);
+            }
+        }
+    }
 
-            var set = chunkHolder.get(ref.pos.asLong());
-            // We might remove a different garbage-collected reference,
-            // or we might remove nothing if the reference was already removed.
-            // Because the hash codes will match, that is fine.
-            boolean removed = set.remove(ref);
+    /**
+     * {@return the total number of registered listeners}
+     */
+    public int getListenerCount() {
+        return listenerCount;
+    }
 
-            if (removed && set.isEmpty()) {
-                chunkHolder.remove(ref.pos.asLong());
-                if (chunkHolder.isEmpty()) {
-                    byChunkThenBlock.remove(ChunkPos.asLong(ref.pos));
-                }
+    /**
+     * {@return the number of listeners that were notified during the last full tick}
+     */
+    public int getInvalidationsLastTick() {
+        return invalidationsLastTick;
+    }
+
+    /**
+     * {@return a new map of chunk pos -> number of registered listeners in that chunk}
+     */
+    public Long2IntMap getListenerCountsByChunk() {
+        var ret = new Long2IntOpenHashMap(byChunk.size());
+        for (var chunk : byChunk.values())
+            ret.put(chunk.chunkPos, chunk.size);
+        return ret;
+    }
+
+    /**
+     * Slab of listeners for a single chunk.
+     *
+     * <p>Note that listeners can register new listeners when notified,
+     * so arrays must always be re-read from the fields after a listener is called.
+     */
+    private final class ChunkListeners {
+        private static final int INITIAL_CAPACITY = 4;
+
+        private final long chunkPos;
+        /**
+         * Head slot of each chain, keyed by packed block position.
+         */
+        private final Long2IntOpenHashMap blockHeads = new Long2IntOpenHashMap();
+        /**
+         * Head slot of each chain, keyed by packed section position.
+         */
+        private final Long2IntOpenHashMap sectionHeads = new Long2IntOpenHashMap();
+
+        private ListenerReference[] refs = new ListenerReference[INITIAL_CAPACITY];
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private boolean[] sections = new boolean[INITIAL_CAPACITY];
+        /**
+         * Next slot in the same chain, {@code -1} for the end of a chain. Also used to chain free slots.
+         */
+        private int[] next = new int[INITIAL_CAPACITY];
+        private int[] generations = new int[INITIAL_CAPACITY];
+        /**
+         * Number of slots that were ever allocated. Slots above this index have never been used.
+         */
+        private int allocated = 0;
+        private int freeHead = -1;
+        private int size = 0;
+
+        private ChunkListeners(long chunkPos) {
+            this.chunkPos = chunkPos;
+            this.blockHeads.defaultReturnValue(-1);
+            this.sectionHeads.defaultReturnValue(-1);
+        }
+
+        private Long2IntOpenHashMap heads(boolean section) {
+            return section ? sectionHeads : blockHeads;
+        }
+
+        private void add(long key, boolean section, Object listener) {
+            var heads = heads(section);
+            int head = heads.get(key);
+            for (int slot = head; slot != -1; slot = next[slot]) {
+                // Ignore duplicates
+                if (refs[slot].get() == listener)
+                    return;
             }
+
+            int slot = allocateSlot();
+            refs[slot] = new ListenerReference(queue, this, slot, generations[slot], listener);
+            keys[slot] = key;
+            sections[slot] = section;
+            next[slot] = head;
+            heads.put(key, slot);
+            ++size;
+            ++listenerCount;
         }
-    }
 
-    private static class ListenerReference extends WeakReference<ICapabilityInvalidationListener> {
-        private final BlockPos pos;
-        private final int listenerHashCode;
+        private int allocateSlot() {
+            if (freeHead != -1) {
+                int slot = freeHead;
+                freeHead = next[slot];
+                return slot;
+            }
 
-        private ListenerReference(ReferenceQueue<ICapabilityInvalidationListener> queue, BlockPos pos, ICapabilityInvalidationListener listener) {
-            super(listener, queue);
-            this.pos = pos;
-            this.listenerHashCode = System.identityHashCode(listener);
+            if (allocated == refs.length) {
+                int newCapacity = refs.length * 2;
+                refs = Arrays.copyOf(refs, newCapacity);
+                keys = Arrays.copyOf(keys, newCapacity);
+                sections = Arrays.copyOf(sections, newCapacity);
+                next = Arrays.copyOf(next, newCapacity);
+                generations = Arrays.copyOf(generations, newCapacity);
+            }
+            return allocated++;
+        }
+
+        /**
+         * Frees a slot that was already removed from its chain.
+         */
+        private void free(int slot) {
+            refs[slot].clear();
+            refs[slot] = null;
+            ++generations[slot];
+            next[slot] = freeHead;
+            freeHead = slot;
+            --size;
+            --listenerCount;
         }
 
-        @Override
-        public boolean equals(Object obj) {
-            if (obj instanceof ListenerReference otherRef) {
-                // Equivalent if the hash codes and the listeners match.
-                // Use identity comparisons.
-                return otherRef.listenerHashCode == listenerHashCode && otherRef.get() == get();
+        /**
+         * Removes a slot from its chain and frees it.
+         */
+        private void unlink(int slot) {
+            var heads = heads(sections[slot]);
+            long key = keys[slot];
+            int head = heads.get(key);
+            if (head == slot) {
+                removeHead(heads, key, slot);
             } else {
-                return false;
+                int prev = head;
+                while (next[prev] != slot)
+                    prev = next[prev];
+                next[prev] = next[slot];
             }
+            free(slot);
         }
 
-        @Override
-        public int hashCode() {
-            return listenerHashCode;
+        private void removeHead(Long2IntOpenHashMap heads, long key, int slot) {
+            if (next[slot] == -1)
+                heads.remove(key);
+            else
+                heads.put(key, next[slot]);
+        }
+
+        /**
+         * Notifies all the listeners in a chain, and frees the slots of the listeners that are not valid anymore.
+         */
+        private void invalidateChain(long key, boolean section, @Nullable BlockPos pos) {
+            var heads = heads(section);
+            int prev = -1;
+            int slot = heads.get(key);
+            while (slot != -1) {
+                boolean valid = notify(slot, pos);
+                int nextSlot = next[slot];
+                if (valid) {
+                    prev = slot;
+                } else {
+                    if (prev != -1) {
+                        next[prev] = nextSlot;
+                    } else if (heads.get(key) == slot) {
+                        removeHead(heads, key, slot);
+                    } else {
+                        // A listener was prepended to the chain while we were iterating
+                        unlink(slot);
+                        slot = nextSlot;
+                        continue;
+                    }
+                    free(slot);
+                }
+                slot = nextSlot;
+            }
+        }
+
+        /**
+         * Notifies all the listeners in the chunk, and frees the slots of the listeners that are not valid anymore.
+         */
+        private void invalidateAll() {
+            // Iterate over the slots directly instead of over the chains.
+            // Listeners that are added during the iteration might be notified as well, which is harmless.
+            for (int slot = 0; slot < allocated; ++slot) {
+                if (refs[slot] != null && !notify(slot, null)) {
+                    // The slot might have been freed by a re-entrant call
+                    if (refs[slot] != null)
+                        unlink(slot);
+                }
+            }
+        }
+
+        private boolean notify(int slot, @Nullable BlockPos pos) {
+            var listener = refs[slot].get();
+            if (listener == null)
+                return false;
+
+            ++invalidationsThisTick;
+            if (listener instanceof ISectionCapabilityInvalidationListener sectionListener)
+                return sectionListener.onInvalidate(pos);
+            return ((ICapabilityInvalidationListener) listener).onInvalidate();
+        }
+    }
+
+    private static class ListenerReference extends WeakReference<Object> {
+        private final ChunkListeners owner;
+        private final int slot;
+        private final int generation;
+
+        private ListenerReference(ReferenceQueue<Object> queue, ChunkListeners owner, int slot, int generation, Object listener) {
+            super(listener, queue);
+            this.owner = owner;
+            this.slot = slot;
+            this.generation = generation;
         }
     }
 }
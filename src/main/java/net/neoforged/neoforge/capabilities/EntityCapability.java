@@ -94,6 +94,15 @@ public final class EntityCapability<T, C> extends BaseCapability<T, C> {
 
     final Map<EntityType<?>, List<ICapabilityProvider<Entity, C, T>>> providers = new IdentityHashMap<>();
 
+    /**
+     * {@return whether any provider was registered for this capability and the given entity type}
+     * Entities of other types never have the capability.
+     */
+    @ApiStatus.Internal
+    public boolean hasProviders(EntityType<?> entityType) {
+        return providers.containsKey(entityType);
+    }
+
     @ApiStatus.Internal
     @Nullable
     public T getCapability(Entity entity, C context) {
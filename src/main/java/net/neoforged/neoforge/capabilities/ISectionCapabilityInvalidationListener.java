@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.neoforge.capabilities;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A listener for block capability invalidation in a whole chunk section.
+ *
+ * <p>Register with {@link ServerLevel#registerCapabilityListener(SectionPos, ISectionCapabilityInvalidationListener)}.
+ * This is mostly useful to track many positions with a single listener, see {@link BlockCapabilityGroupCache}.
+ *
+ * <p>The listener will be held by a weak reference, so it is important to keep a strong reference to it
+ * as long as you need it.
+ */
+@FunctionalInterface
+public interface ISectionCapabilityInvalidationListener {
+    /**
+     * Called when capabilities are invalidated in the section.
+     *
+     * <p>The listener should check that it is valid before reacting to this notification,
+     * and if it is not valid anymore, it should return {@code false}.
+     *
+     * @param pos the position that was invalidated, or {@code null} if the whole chunk containing the section was invalidated
+     * @return {@code true} if the listener is still valid, {@code false} if it should be removed from the list of listeners.
+     */
+    boolean onInvalidate(@Nullable BlockPos pos);
+}
@@ -6,9 +6,9 @@
 package net.neoforged.neoforge.client.model.data;
 
 import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.objects.ReferenceArraySet;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.IdentityHashMap;
-import java.util.Map;
 import java.util.Set;
 import net.minecraft.client.renderer.RenderType;
 import net.minecraft.client.resources.model.BakedModel;
@@ -33,25 +33,34 @@ import org.jetbrains.annotations.Nullable;
  * @see BakedModel#getModelData(BlockAndTintGetter, BlockPos, BlockState, ModelData)
  */
 public final class ModelData {
-    public static final ModelData EMPTY = ModelData.builder().build();
+    public static final ModelData EMPTY = new ModelData(new int[0], new ModelProperty<?>[0], new Object[0]);
 
-    private final Map<ModelProperty<?>, Object> properties;
+    /**
+     * Slots of the properties in this container, in increasing order.
+     * {@link #keys} and {@link #values} are stored in the same order.
+     */
+    private final int[] slots;
+    private final ModelProperty<?>[] keys;
+    private final Object[] values;
 
-    private ModelData(Map<ModelProperty<?>, Object> properties) {
-        this.properties = properties;
+    private ModelData(int[] slots, ModelProperty<?>[] keys, Object[] values) {
+        this.slots = slots;
+        this.keys = keys;
+        this.values = values;
     }
 
     public Set<ModelProperty<?>> getProperties() {
-        return properties.keySet();
+        return Collections.unmodifiableSet(new ReferenceArraySet<>(keys));
     }
 
     public boolean has(ModelProperty<?> property) {
-        return properties.containsKey(property);
+        return Arrays.binarySearch(slots, property.slot) >= 0;
     }
 
     @Nullable
     public <T> T get(ModelProperty<T> property) {
-        return (T) properties.get(property);
+        int index = Arrays.binarySearch(slots, property.slot);
+        return index >= 0 ? (T) values[index] : null;
     }
 
     public Builder derive() {
@@ -59,28 +68,74 @@ public final class ModelData {
     }
 
     public static Builder builder() {
-        return new Builder(null);
+        return new Builder(EMPTY);
     }
 
+    /**
+     * Builder for {@link ModelData}.
+     * <p>
+     * The builder shares the arrays of the data it was derived from, and only copies them when a property is changed.
+     * Building without changing any property returns the original data.
+     */
     public static final class Builder {
-        private final Map<ModelProperty<?>, Object> properties = new IdentityHashMap<>();
+        private int[] slots;
+        private ModelProperty<?>[] keys;
+        private Object[] values;
+        /**
+         * The data that currently shares the arrays of this builder, or {@code null} if the arrays are owned by this builder.
+         */
+        @Nullable
+        private ModelData shared;
 
-        private Builder(@Nullable ModelData parent) {
-            if (parent != null) {
-                properties.putAll(parent.properties);
-            }
+        private Builder(ModelData parent) {
+            this.slots = parent.slots;
+            this.keys = parent.keys;
+            this.values = parent.values;
+            this.shared = parent;
         }
 
         @Contract("_, _ -> this")
         public <T> Builder with(ModelProperty<T> property, T value) {
             Preconditions.checkState(property.test(value), "The provided value is invalid for this property.");
-            properties.put(property, value);
+            int index = Arrays.binarySearch(slots, property.slot);
+            if (index >= 0) {
+                if (values[index] == value)
+                    return this;
+                if (shared != null) {
+                    values = values.clone();
+                    slots = slots.clone();
+                    keys = keys.clone();
+                    shared = null;
+                }
+                values[index] = value;
+            } else {
+                // Insert the new property at its sorted position, which always copies the arrays
+                int insertAt = -index - 1;
+                int size = slots.length;
+                int[] newSlots = new int[size + 1];
+                ModelProperty<?>[] newKeys = new ModelProperty<?>[size + 1];
+                Object[] newValues = new Object[size + 1];
+                System.arraycopy(slots, 0, newSlots, 0, insertAt);
+                System.arraycopy(keys, 0, newKeys, 0, insertAt);
+                System.arraycopy(values, 0, newValues, 0, insertAt);
+                newSlots[insertAt] = property.slot;
+                newKeys[insertAt] = property;
+                newValues[insertAt] = value;
+                System.arraycopy(slots, insertAt, newSlots, insertAt + 1, size - insertAt);
+                System.arraycopy(keys, insertAt, newKeys, insertAt + 1, size - insertAt);
+                System.arraycopy(values, insertAt, newValues, insertAt + 1, size - insertAt);
+                slots = newSlots;
+                keys = newKeys;
+                values = newValues;
+                shared = null;
+            }
             return this;
         }
 
-        @Contract("-> new")
         public ModelData build() {
-            return new ModelData(Collections.unmodifiableMap(properties));
+            if (shared == null)
+                shared = new ModelData(slots, keys, values);
+            return shared;
         }
     }
 }
@@ -6,11 +6,17 @@
 package net.neoforged.neoforge.client.model.data;
 
 import com.google.common.base.Preconditions;
-import java.util.Collections;
-import java.util.HashSet;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.SectionPos;
 import net.minecraft.world.level.ChunkPos;
@@ -28,14 +34,22 @@ import org.jetbrains.annotations.Nullable;
 /**
  * A manager for the lifecycle of all the {@link ModelData} instances in a {@link Level}.
  * <p>
+ * Model data is stored per chunk section, keyed by packed block position.
+ * Each section exposes an immutable snapshot that is replaced whenever a refresh is processed,
+ * such that lookups and section compile tasks can read it from any thread, only briefly locking the map of sections to find it.
+ * Only processing the pending refreshes of a section locks that section.
+ * <p>
  * Users should not be instantiating or using this themselves unless they know what they're doing.
  */
 @ApiStatus.Internal
 @EventBusSubscriber(modid = "neoforge", bus = Bus.FORGE, value = Dist.CLIENT)
 public class ModelDataManager {
     private final Level level;
-    private final Map<ChunkPos, Set<BlockPos>> needModelDataRefresh = new ConcurrentHashMap<>();
-    private final Map<ChunkPos, Map<BlockPos, ModelData>> modelDataCache = new ConcurrentHashMap<>();
+    /**
+     * Map of packed section pos -> section data.
+     * Guarded by itself; the lock is only held to look up, add or remove a section, never while a section is refreshed.
+     */
+    private final Long2ObjectMap<Section> sections = new Long2ObjectOpenHashMap<>();
 
     public ModelDataManager(Level level) {
         this.level = level;
@@ -43,38 +57,106 @@ public class ModelDataManager {
 
     public void requestRefresh(@NotNull BlockEntity blockEntity) {
         Preconditions.checkNotNull(blockEntity, "Block entity must not be null");
-        needModelDataRefresh.computeIfAbsent(new ChunkPos(blockEntity.getBlockPos()), $ -> Collections.synchronizedSet(new HashSet<>()))
-                .add(blockEntity.getBlockPos());
+        BlockPos pos = blockEntity.getBlockPos();
+        long sectionPos = SectionPos.asLong(pos);
+        while (true) {
+            Section section;
+            synchronized (sections) {
+                section = sections.computeIfAbsent(sectionPos, $ -> new Section());
+            }
+            synchronized (section) {
+                // The section might have been removed after we looked it up, retry with a new one
+                if (!section.removed) {
+                    section.needRefresh.add(pos.asLong());
+                    section.hasPendingRefresh = true;
+                    return;
+                }
+            }
+        }
     }
 
-    private void refreshAt(ChunkPos chunk) {
-        Set<BlockPos> needUpdate = needModelDataRefresh.remove(chunk);
+    /**
+     * Processes the pending refreshes of a section, and returns the section if it still contains any data.
+     */
+    @Nullable
+    private Section refreshAt(long sectionPos) {
+        Section section;
+        synchronized (sections) {
+            section = sections.get(sectionPos);
+        }
+        if (section == null || !section.hasPendingRefresh)
+            return section;
+
+        synchronized (section) {
+            if (section.removed)
+                return null;
+            if (!section.hasPendingRefresh)
+                return section;
 
-        if (needUpdate != null) {
-            Map<BlockPos, ModelData> data = modelDataCache.computeIfAbsent(chunk, $ -> new ConcurrentHashMap<>());
-            for (BlockPos pos : needUpdate) {
-                BlockEntity toUpdate = level.getBlockEntity(pos);
+            Long2ObjectMap<ModelData> data = new Long2ObjectOpenHashMap<>(section.snapshot);
+            BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+            for (LongIterator it = section.needRefresh.iterator(); it.hasNext();) {
+                long packedPos = it.nextLong();
+                BlockEntity toUpdate = level.getBlockEntity(pos.set(packedPos));
                 if (toUpdate != null && !toUpdate.isRemoved()) {
-                    data.put(pos, toUpdate.getModelData());
+                    data.put(packedPos, toUpdate.getModelData());
                 } else {
-                    data.remove(pos);
+                    data.remove(packedPos);
+                }
+            }
+            section.needRefresh.clear();
+            section.snapshot = data.isEmpty() ? Long2ObjectMaps.emptyMap() : Long2ObjectMaps.unmodifiable(data);
+            section.hasPendingRefresh = false;
+
+            if (section.snapshot.isEmpty()) {
+                section.removed = true;
+                synchronized (sections) {
+                    sections.remove(sectionPos, section);
                 }
+                return null;
             }
+            return section;
         }
     }
 
     public @Nullable ModelData getAt(BlockPos pos) {
-        return getAt(new ChunkPos(pos)).get(pos);
+        Preconditions.checkArgument(level.isClientSide, "Cannot request model data for server level");
+        Section section = refreshAt(SectionPos.asLong(pos));
+        return section == null ? null : section.snapshot.get(pos.asLong());
     }
 
-    public Map<BlockPos, ModelData> getAt(ChunkPos pos) {
+    /**
+     * {@return an immutable snapshot of the model data in a section, keyed by packed block position}
+     * Only the pending refreshes of that section are processed.
+     * The returned map is never modified afterwards, and can be safely read from any thread.
+     */
+    public Long2ObjectMap<ModelData> getSnapshot(SectionPos pos) {
         Preconditions.checkArgument(level.isClientSide, "Cannot request model data for server level");
-        refreshAt(pos);
-        return modelDataCache.getOrDefault(pos, Collections.emptyMap());
+        Section section = refreshAt(pos.asLong());
+        return section == null ? Long2ObjectMaps.emptyMap() : section.snapshot;
+    }
+
+    /**
+     * {@return an unmodifiable view of the model data in all the sections of a chunk, as of this call}
+     * Prefer {@link #getSnapshot(SectionPos)} where possible.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<BlockPos, ModelData> getAt(ChunkPos pos) {
+        int minSection = level.getMinSection();
+        Long2ObjectMap<ModelData>[] snapshots = new Long2ObjectMap[level.getMaxSection() - minSection];
+        for (int i = 0; i < snapshots.length; ++i) {
+            snapshots[i] = getSnapshot(SectionPos.of(pos, minSection + i));
+        }
+        return new SnapshotView(pos.x, pos.z, minSection, snapshots);
     }
 
+    /**
+     * {@return an unmodifiable view of the model data in a section, as of this call}
+     * Prefer {@link #getSnapshot(SectionPos)} where possible.
+     */
+    @SuppressWarnings("unchecked")
     public Map<BlockPos, ModelData> getAt(SectionPos pos) {
-        return getAt(pos.chunk());
+        return new SnapshotView(pos.x(), pos.z(), pos.y(), new Long2ObjectMap[] { getSnapshot(pos) });
     }
 
     @SubscribeEvent
@@ -88,7 +170,102 @@ public class ModelDataManager {
             return;
 
         ChunkPos chunk = event.getChunk().getPos();
-        modelDataManager.needModelDataRefresh.remove(chunk);
-        modelDataManager.modelDataCache.remove(chunk);
+        for (int y = level.getMinSection(); y < level.getMaxSection(); ++y) {
+            Section section;
+            synchronized (modelDataManager.sections) {
+                section = modelDataManager.sections.remove(SectionPos.asLong(chunk.x, y, chunk.z));
+            }
+            if (section != null) {
+                synchronized (section) {
+                    section.removed = true;
+                }
+            }
+        }
+    }
+
+    private static final class Section {
+        private volatile Long2ObjectMap<ModelData> snapshot = Long2ObjectMaps.emptyMap();
+        /**
+         * Whether {@link #needRefresh} is not empty, readable without holding the lock.
+         */
+        private volatile boolean hasPendingRefresh;
+        // Guarded by the section
+        private final LongOpenHashSet needRefresh = new LongOpenHashSet();
+        private boolean removed;
+    }
+
+    /**
+     * Read-only {@link BlockPos} keyed view of the snapshots of vertically consecutive sections.
+     */
+    private static final class SnapshotView extends AbstractMap<BlockPos, ModelData> {
+        private final int chunkX;
+        private final int chunkZ;
+        private final int minSection;
+        private final Long2ObjectMap<ModelData>[] snapshots;
+
+        private SnapshotView(int chunkX, int chunkZ, int minSection, Long2ObjectMap<ModelData>[] snapshots) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.minSection = minSection;
+            this.snapshots = snapshots;
+        }
+
+        @Nullable
+        @Override
+        public ModelData get(Object key) {
+            if (!(key instanceof BlockPos pos) || SectionPos.blockToSectionCoord(pos.getX()) != chunkX || SectionPos.blockToSectionCoord(pos.getZ()) != chunkZ)
+                return null;
+            int index = SectionPos.blockToSectionCoord(pos.getY()) - minSection;
+            return index >= 0 && index < snapshots.length ? snapshots[index].get(pos.asLong()) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (Long2ObjectMap<ModelData> snapshot : snapshots)
+                size += snapshot.size();
+            return size;
+        }
+
+        @Override
+        public Set<Entry<BlockPos, ModelData>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<BlockPos, ModelData>> iterator() {
+                    return new Iterator<>() {
+                        private int index = 0;
+                        private Iterator<Long2ObjectMap.Entry<ModelData>> current = Long2ObjectMaps.fastIterator(snapshots[0]);
+
+                        @Override
+                        public boolean hasNext() {
+                            while (!current.hasNext()) {
+                                if (++index >= snapshots.length)
+                                    return false;
+                                current = Long2ObjectMaps.fastIterator(snapshots[index]);
+                            }
+                            return true;
+                        }
+
+                        @Override
+                        public Entry<BlockPos, ModelData> next() {
+                            if (!hasNext())
+                                throw new NoSuchElementException();
+                            var entry = current.next();
+                            return new SimpleImmutableEntry<>(BlockPos.of(entry.getLongKey()), entry.getValue());
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return SnapshotView.this.size();
+                }
+            };
+        }
     }
 }
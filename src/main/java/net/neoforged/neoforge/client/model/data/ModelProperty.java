@@ -6,6 +6,7 @@
 package net.neoforged.neoforge.client.model.data;
 
 import com.google.common.base.Predicates;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 
 /**
@@ -16,6 +17,12 @@ import java.util.function.Predicate;
  * @see ModelData
  */
 public class ModelProperty<T> implements Predicate<T> {
+    private static final AtomicInteger NEXT_SLOT = new AtomicInteger();
+
+    /**
+     * Unique index of this property, used to keep the properties of {@link ModelData} sorted.
+     */
+    final int slot = NEXT_SLOT.getAndIncrement();
     private final Predicate<T> predicate;
 
     public ModelProperty() {
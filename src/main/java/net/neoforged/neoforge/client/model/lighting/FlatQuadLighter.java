@@ -25,6 +25,7 @@ public class FlatQuadLighter extends QuadLighter {
 
     private boolean isFullCube;
     private final int[] packedLight = new int[7];
+    private final BlockPos.MutableBlockPos neighborPos = new BlockPos.MutableBlockPos();
 
     public FlatQuadLighter(BlockColors colors) {
         super(colors);
@@ -34,7 +35,7 @@ public class FlatQuadLighter extends QuadLighter {
     protected void computeLightingAt(BlockAndTintGetter level, BlockPos pos, BlockState state) {
         isFullCube = Block.isShapeFullBlock(state.getCollisionShape(level, pos));
         for (Direction side : SIDES) {
-            packedLight[side.ordinal()] = LevelRenderer.getLightColor(level, state, pos.relative(side));
+            packedLight[side.ordinal()] = LevelRenderer.getLightColor(level, state, neighborPos.setWithOffset(pos, side));
         }
         packedLight[6] = LevelRenderer.getLightColor(level, state, pos);
     }
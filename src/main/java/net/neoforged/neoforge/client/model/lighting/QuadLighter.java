@@ -7,7 +7,6 @@ package net.neoforged.neoforge.client.model.lighting;
 
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.mojang.blaze3d.vertex.VertexConsumer;
-import java.util.Objects;
 import net.minecraft.client.color.block.BlockColors;
 import net.minecraft.client.renderer.LightTexture;
 import net.minecraft.client.renderer.block.model.BakedQuad;
@@ -16,7 +15,6 @@ import net.minecraft.world.level.BlockAndTintGetter;
 import net.minecraft.world.level.LightLayer;
 import net.minecraft.world.level.block.state.BlockState;
 import net.neoforged.neoforge.client.model.IQuadTransformer;
-import org.joml.Vector3f;
 
 /**
  * Base class for all quad lighting providers.
@@ -31,9 +29,9 @@ public abstract class QuadLighter {
 
     private final BlockColors colors;
 
-    private int currentHash = 0;
     private BlockAndTintGetter level;
     private BlockPos pos;
+    private long packedPos;
     private BlockState state;
     private int cachedTintIndex = -1;
     private final float[] cachedTintColor = new float[3];
@@ -44,6 +42,7 @@ public abstract class QuadLighter {
     private final float[][] positions = new float[4][3];
     private final byte[][] normals = new byte[4][3];
     private final int[] packedLightmaps = new int[4];
+    private final float[] adjustedPosition = new float[3];
 
     protected QuadLighter(BlockColors colors) {
         this.colors = colors;
@@ -56,13 +55,14 @@ public abstract class QuadLighter {
     protected abstract int calculateLightmap(float[] position, byte[] normal);
 
     public final void setup(BlockAndTintGetter level, BlockPos pos, BlockState state) {
-        var hash = Objects.hash(level, pos, state);
-        if (this.level != null && this.currentHash == hash) {
+        // Compare the packed position rather than the position object, since callers may reuse a mutable position
+        long packedPos = pos.asLong();
+        if (this.level == level && this.packedPos == packedPos && this.state == state) {
             return; // If we are drawing a block at the same position as before, don't re-compute anything
         }
-        this.currentHash = hash;
         this.level = level;
         this.pos = pos;
+        this.packedPos = packedPos;
         this.state = state;
         this.cachedTintIndex = -1;
         computeLightingAt(level, pos, state);
@@ -86,17 +86,24 @@ public abstract class QuadLighter {
             packedLightmaps[i] = vertices[offset + IQuadTransformer.UV2];
         }
         if (normals[0][0] == 0 && normals[0][1] == 0 && normals[0][2] == 0) {
-            Vector3f a = new Vector3f(positions[0]);
-            Vector3f ab = new Vector3f(positions[1]);
-            Vector3f ac = new Vector3f(positions[2]);
-            ac.sub(a);
-            ab.sub(a);
-            ab.cross(ac);
-            ab.normalize();
+            // Compute the face normal as (v1 - v0) x (v2 - v0)
+            float abX = positions[1][0] - positions[0][0];
+            float abY = positions[1][1] - positions[0][1];
+            float abZ = positions[1][2] - positions[0][2];
+            float acX = positions[2][0] - positions[0][0];
+            float acY = positions[2][1] - positions[0][1];
+            float acZ = positions[2][2] - positions[0][2];
+            float nX = abY * acZ - abZ * acY;
+            float nY = abZ * acX - abX * acZ;
+            float nZ = abX * acY - abY * acX;
+            float invLength = 1.0f / (float) Math.sqrt(nX * nX + nY * nY + nZ * nZ);
+            byte normalX = (byte) (nX * invLength * 127);
+            byte normalY = (byte) (nY * invLength * 127);
+            byte normalZ = (byte) (nZ * invLength * 127);
             for (int v = 0; v < 4; v++) {
-                normals[v][0] = (byte) (ab.x() * 127);
-                normals[v][1] = (byte) (ab.y() * 127);
-                normals[v][2] = (byte) (ab.z() * 127);
+                normals[v][0] = normalX;
+                normals[v][1] = normalY;
+                normals[v][2] = normalZ;
             }
         }
 
@@ -105,13 +112,11 @@ public abstract class QuadLighter {
             var normal = normals[i];
             int packedLightmap = packedLightmaps[i];
 
-            var adjustedPosition = new float[] {
-                    position[0] - 0.5f + ((normal[0] / 127f) * 0.5f),
-                    position[1] - 0.5f + ((normal[1] / 127f) * 0.5f),
-                    position[2] - 0.5f + ((normal[2] / 127f) * 0.5f)
-            };
+            adjustedPosition[0] = position[0] - 0.5f + ((normal[0] / 127f) * 0.5f);
+            adjustedPosition[1] = position[1] - 0.5f + ((normal[1] / 127f) * 0.5f);
+            adjustedPosition[2] = position[2] - 0.5f + ((normal[2] / 127f) * 0.5f);
 
-            var shade = level.getShade(normals[i][0] / 127f, normals[i][1] / 127f, normals[i][2] / 127f, quad.isShade());
+            var shade = level.getShade(normal[0] / 127f, normal[1] / 127f, normal[2] / 127f, quad.isShade());
             brightness[i] = calculateBrightness(adjustedPosition) * shade;
             int newLightmap = calculateLightmap(adjustedPosition, normal);
             lightmap[i] = Math.max(packedLightmap & 0xFFFF, newLightmap & 0xFFFF) |
@@ -28,6 +28,8 @@ public class NeoForgeConfig {
 
         public final BooleanValue advertiseDedicatedServerToLan;
 
+        public final BooleanValue parallelWorldgenModifiers;
+
         Server(ModConfigSpec.Builder builder) {
             builder.comment("Server configuration settings")
                     .push("server");
@@ -60,6 +62,12 @@ public class NeoForgeConfig {
                     .translation("neoforge.configgui.advertiseDedicatedServerToLan")
                     .define("advertiseDedicatedServerToLan", true);
 
+            parallelWorldgenModifiers = builder
+                    .comment("Set this to true to apply biome and structure modifiers to each biome and structure in parallel when the server starts. Only enable this if all the installed modifiers are thread-safe.")
+                    .translation("neoforge.configgui.parallelWorldgenModifiers")
+                    .worldRestart()
+                    .define("parallelWorldgenModifiers", false);
+
             builder.pop();
         }
     }
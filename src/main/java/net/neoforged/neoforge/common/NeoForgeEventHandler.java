@@ -15,6 +15,7 @@ import net.minecraft.world.item.ItemStack;
 import net.neoforged.bus.api.EventPriority;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.LogicalSide;
+import net.neoforged.neoforge.common.crafting.CraftingHelper;
 import net.neoforged.neoforge.common.loot.LootModifierManager;
 import net.neoforged.neoforge.common.util.FakePlayerFactory;
 import net.neoforged.neoforge.common.util.LogicalSidedProvider;
@@ -91,6 +92,7 @@ public class NeoForgeEventHandler {
     public void tagsUpdated(TagsUpdatedEvent event) {
         if (event.shouldUpdateStaticData()) {
             CommonHooks.updateBurns();
+            CraftingHelper.invalidateIngredientCaches();
         }
     }
 
@@ -147,6 +147,7 @@ import net.neoforged.neoforge.registries.holdersets.NotHolderSet;
 import net.neoforged.neoforge.registries.holdersets.OrHolderSet;
 import net.neoforged.neoforge.server.command.EnumArgument;
 import net.neoforged.neoforge.server.command.ModIdArgument;
+import net.neoforged.neoforge.server.command.generation.GenerationTask;
 import net.neoforged.neoforge.server.permission.events.PermissionGatherEvent;
 import net.neoforged.neoforge.server.permission.nodes.PermissionNode;
 import net.neoforged.neoforge.server.permission.nodes.PermissionTypes;
@@ -531,6 +532,7 @@ public class NeoForgeMod {
 
     public void serverStopping(ServerStoppingEvent evt) {
         WorldWorkerManager.clear();
+        GenerationTask.stopAll();
     }
 
     public void gatherData(GatherDataEvent event) {
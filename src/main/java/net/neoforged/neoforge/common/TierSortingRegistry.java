@@ -18,6 +18,9 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import it.unimi.dsi.fastutil.booleans.BooleanConsumer;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntMaps;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import java.io.IOException;
 import java.io.Reader;
 import java.util.ArrayList;
@@ -26,6 +29,8 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import net.minecraft.core.Holder;
+import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.MinecraftServer;
@@ -46,6 +51,7 @@ import net.minecraft.world.level.block.state.BlockState;
 import net.neoforged.fml.loading.FMLEnvironment;
 import net.neoforged.fml.loading.toposort.TopologicalSort;
 import net.neoforged.neoforge.client.event.ClientPlayerNetworkEvent;
+import net.neoforged.neoforge.event.TagsUpdatedEvent;
 import net.neoforged.neoforge.event.entity.player.PlayerEvent;
 import net.neoforged.neoforge.network.NetworkEvent;
 import net.neoforged.neoforge.network.NetworkRegistry;
@@ -133,12 +139,8 @@ public class TierSortingRegistry {
         if (!isTierSorted(tier))
             return isCorrectTierVanilla(tier, state);
 
-        for (int x = sortedTiers.indexOf(tier) + 1; x < sortedTiers.size(); x++) {
-            TagKey<Block> tag = sortedTiers.get(x).getTag();
-            if (tag != null && state.is(tag))
-                return false;
-        }
-        return true;
+        var lookup = tierLookup;
+        return lookup.tierIndices.getInt(tier) >= lookup.requiredTierIndices.getInt(state.getBlock());
     }
 
     /**
@@ -214,6 +216,7 @@ public class TierSortingRegistry {
 
     private static final List<Tier> sortedTiers = new ArrayList<>();
     private static final List<Tier> sortedTiersUnmodifiable = Collections.unmodifiableList(sortedTiers);
+    private static volatile TierLookup tierLookup = TierLookup.EMPTY;
 
     private static final ResourceLocation CHANNEL_NAME = new ResourceLocation("neoforge:tier_sorting");
     private static final String PROTOCOL_VERSION = "1.0";
@@ -230,6 +233,7 @@ public class TierSortingRegistry {
     static void init() {
         SYNC_CHANNEL.registerMessage(0, SyncPacket.class, SyncPacket::encode, TierSortingRegistry::receive, TierSortingRegistry::handle, Optional.of(PlayNetworkDirection.PLAY_TO_CLIENT));
         NeoForge.EVENT_BUS.addListener(TierSortingRegistry::playerLoggedIn);
+        NeoForge.EVENT_BUS.addListener(TierSortingRegistry::tagsUpdated);
         if (FMLEnvironment.dist.isClient()) ClientEvents.init();
     }
 
@@ -300,12 +304,57 @@ public class TierSortingRegistry {
 
     private static void setTierOrder(List<Tier> tierList) {
         runInServerThreadIfPossible(hasServer -> {
-            sortedTiers.clear();
-            sortedTiers.addAll(tierList);
+            synchronized (TierSortingRegistry.class) {
+                sortedTiers.clear();
+                sortedTiers.addAll(tierList);
+                rebuildTierLookup();
+            }
             if (hasServer) syncToAll();
         });
     }
 
+    private static void tagsUpdated(TagsUpdatedEvent event) {
+        if (event.shouldUpdateStaticData()) {
+            synchronized (TierSortingRegistry.class) {
+                rebuildTierLookup();
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the lookup used by {@link #isCorrectTierForDrops}.
+     * Must be called whenever the tier order or the block tags change, while holding the class lock.
+     */
+    private static void rebuildTierLookup() {
+        var tierIndices = new Reference2IntOpenHashMap<Tier>(sortedTiers.size());
+        tierIndices.defaultReturnValue(-1);
+        var requiredTierIndices = new Reference2IntOpenHashMap<Block>();
+        requiredTierIndices.defaultReturnValue(-1);
+
+        for (int x = 0; x < sortedTiers.size(); x++) {
+            Tier tier = sortedTiers.get(x);
+            tierIndices.putIfAbsent(tier, x);
+            TagKey<Block> tag = tier.getTag();
+            if (tag == null)
+                continue;
+            // Tiers are iterated in increasing order, so this leaves the index of the highest tier whose tag contains the block
+            for (Holder<Block> holder : BuiltInRegistries.BLOCK.getTagOrEmpty(tag))
+                requiredTierIndices.put(holder.value(), x);
+        }
+
+        tierLookup = new TierLookup(tierIndices, requiredTierIndices);
+    }
+
+    /**
+     * Precomputed data for {@link #isCorrectTierForDrops}.
+     *
+     * @param tierIndices         tier -> index in the sorted tiers, or {@code -1}
+     * @param requiredTierIndices block -> index of the highest sorted tier whose tag contains the block, or {@code -1}
+     */
+    private record TierLookup(Reference2IntMap<Tier> tierIndices, Reference2IntMap<Block> requiredTierIndices) {
+        private static final TierLookup EMPTY = new TierLookup(Reference2IntMaps.emptyMap(), Reference2IntMaps.emptyMap());
+    }
+
     private static void runInServerThreadIfPossible(BooleanConsumer runnable) {
         MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
         if (server != null) server.execute(() -> runnable.accept(true));
@@ -326,7 +375,7 @@ public class TierSortingRegistry {
 
     private static void syncToPlayer(ServerPlayer serverPlayer) {
         if (SYNC_CHANNEL.isRemotePresent(serverPlayer.connection.connection) && !serverPlayer.connection.connection.isMemoryConnection()) {
-            SYNC_CHANNEL.send(PacketDistributor.PLAYER.with(() -> serverPlayer), new SyncPacket(sortedTiers.stream().map(TierSortingRegistry::getName).toList()));
+            SYNC_CHANNEL.send(PacketDistributor.PLAYER.withValue(serverPlayer), new SyncPacket(sortedTiers.stream().map(TierSortingRegistry::getName).toList()));
         }
     }
 
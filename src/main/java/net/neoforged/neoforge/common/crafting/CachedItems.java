@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.neoforge.common.crafting;
+
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * Items of a custom ingredient, together with the {@linkplain CraftingHelper#getIngredientCacheGeneration() generation} they were computed in.
+ *
+ * <p>Instances are immutable and published through a volatile field,
+ * so that readers on other threads always see items and a generation that belong together.
+ *
+ * @param items      the items, which must not be modified
+ * @param generation the ingredient cache generation read before computing the items
+ */
+record CachedItems(ItemStack[] items, int generation) {
+    /**
+     * {@return whether tags were not reloaded since the items were computed}
+     */
+    boolean isValid() {
+        return generation == CraftingHelper.getIngredientCacheGeneration();
+    }
+}
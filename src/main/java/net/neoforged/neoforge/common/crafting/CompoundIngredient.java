@@ -30,12 +30,21 @@ public class CompoundIngredient extends Ingredient {
     private final List<Ingredient> children;
     private final boolean isSimple;
     private final boolean synchronizeWithContents;
+    /**
+     * Children that can't be tested by item only, and must be tested individually.
+     */
+    private final Ingredient[] complexChildren;
+    @Nullable
+    private ItemMembership membership;
+    @Nullable
+    private volatile CachedItems cachedItems;
 
     protected CompoundIngredient(List<Ingredient> children) {
         super(children.stream().map(Value::new), NeoForgeMod.COMPOUND_INGREDIENT_TYPE);
         this.children = Collections.unmodifiableList(children);
         this.isSimple = children.stream().allMatch(Ingredient::isSimple);
         this.synchronizeWithContents = children.stream().anyMatch(Ingredient::synchronizeWithContents);
+        this.complexChildren = children.stream().filter(child -> !child.isSimple()).toArray(Ingredient[]::new);
     }
 
     /** Creates a compound ingredient from the given list of ingredients */
@@ -53,15 +62,46 @@ public class CompoundIngredient extends Ingredient {
         if (synchronizeWithContents())
             return super.getItems();
 
-        return children.stream().map(Ingredient::getItems).flatMap(Arrays::stream).toArray(ItemStack[]::new);
+        var cached = cachedItems;
+        if (cached == null || !cached.isValid()) {
+            int generation = CraftingHelper.getIngredientCacheGeneration();
+            ItemStack[] items = children.stream().map(Ingredient::getItems).flatMap(Arrays::stream).toArray(ItemStack[]::new);
+            cachedItems = cached = new CachedItems(items, generation);
+        }
+        return cached.items();
     }
 
     @Override
     public boolean test(@Nullable ItemStack p_43914_) {
-        if (synchronizeWithContents())
-            return super.test(p_43914_);
+        if (p_43914_ == null)
+            return false;
 
-        return children.stream().anyMatch(i -> i.test(p_43914_));
+        if (getMembership().test(p_43914_))
+            return true;
+
+        if (!synchronizeWithContents()) {
+            for (Ingredient child : complexChildren) {
+                if (child.test(p_43914_))
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@return the items matched by this ingredient, or by its simple children if it is not synchronized with its contents}
+     */
+    private ItemMembership getMembership() {
+        var membership = this.membership;
+        if (membership == null || !membership.isValid()) {
+            if (synchronizeWithContents()) {
+                membership = ItemMembership.of(isEmpty(), super.getItems());
+            } else {
+                membership = ItemMembership.anyOf(children.stream().filter(Ingredient::isSimple).toList());
+            }
+            this.membership = membership;
+        }
+        return membership;
     }
 
     @Override
@@ -8,6 +8,7 @@ package net.neoforged.neoforge.common.crafting;
 import com.mojang.datafixers.util.Either;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.nbt.CompoundTag;
@@ -31,6 +32,19 @@ public class CraftingHelper {
     @SuppressWarnings("unused")
     private static final Marker CRAFTHELPER = MarkerManager.getMarker("CRAFTHELPER");
     public static final Codec<CompoundTag> TAG_CODEC = ExtraCodecs.withAlternative(TagParser.AS_CODEC, net.minecraft.nbt.CompoundTag.CODEC);
+    private static final AtomicInteger ingredientCacheGeneration = new AtomicInteger();
+
+    /**
+     * Invalidates the item caches of custom ingredients, called when tags are reloaded.
+     */
+    @ApiStatus.Internal
+    public static void invalidateIngredientCaches() {
+        ingredientCacheGeneration.incrementAndGet();
+    }
+
+    static int getIngredientCacheGeneration() {
+        return ingredientCacheGeneration.get();
+    }
 
     @ApiStatus.Internal
     public static Codec<ItemStack> smeltingResultCodec() {
@@ -36,6 +36,10 @@ public class DifferenceIngredient extends Ingredient {
 
     private final Ingredient base;
     private final Ingredient subtracted;
+    @Nullable
+    private ItemMembership membership;
+    @Nullable
+    private volatile CachedItems cachedItems;
 
     protected DifferenceIngredient(Ingredient base, Ingredient subtracted) {
         super(Arrays.stream(base.getValues()).map(value -> new SubtractingValue(value, subtracted)), NeoForgeMod.DIFFERENCE_INGREDIENT_TYPE);
@@ -62,17 +66,32 @@ public class DifferenceIngredient extends Ingredient {
         if (synchronizeWithContents())
             return super.getItems();
 
-        final var list = Lists.newArrayList(base.getItems());
-        for (ItemStack item : subtracted.getItems()) {
-            list.removeIf(i -> areStacksEqual(i, item));
+        var cached = cachedItems;
+        if (cached == null || !cached.isValid()) {
+            int generation = CraftingHelper.getIngredientCacheGeneration();
+            final var list = Lists.newArrayList(base.getItems());
+            for (ItemStack item : subtracted.getItems()) {
+                list.removeIf(i -> areStacksEqual(i, item));
+            }
+            ItemStack[] items = list.toArray(ItemStack[]::new);
+            cachedItems = cached = new CachedItems(items, generation);
         }
-        return list.toArray(ItemStack[]::new);
+        return cached.items();
     }
 
     @Override
     public boolean test(@Nullable ItemStack p_43914_) {
-        if (synchronizeWithContents())
-            return super.test(p_43914_);
+        if (p_43914_ == null)
+            return false;
+
+        if (synchronizeWithContents()) {
+            var membership = this.membership;
+            if (membership == null || !membership.isValid()) {
+                membership = ItemMembership.of(isEmpty(), super.getItems());
+                this.membership = membership;
+            }
+            return membership.test(p_43914_);
+        }
 
         return base.test(p_43914_) && !subtracted.test(p_43914_);
     }
@@ -33,6 +33,10 @@ public class IntersectionIngredient extends Ingredient {
                     .apply(builder, IntersectionIngredient::new));
 
     private final List<Ingredient> children;
+    @Nullable
+    private ItemMembership membership;
+    @Nullable
+    private volatile CachedItems cachedItems;
 
     protected IntersectionIngredient(List<Ingredient> children) {
         super(children.stream().flatMap(ingredient -> Arrays.stream(ingredient.getValues()).map(value -> {
@@ -69,21 +73,39 @@ public class IntersectionIngredient extends Ingredient {
         if (synchronizeWithContents())
             return super.getItems();
 
-        final List<ItemStack> list = Lists.newArrayList();
-        for (Ingredient child : children) {
-            final var stacks = child.getItems();
-            Arrays.stream(stacks).filter(this).forEach(list::add);
+        var cached = cachedItems;
+        if (cached == null || !cached.isValid()) {
+            int generation = CraftingHelper.getIngredientCacheGeneration();
+            final List<ItemStack> list = Lists.newArrayList();
+            for (Ingredient child : children) {
+                final var stacks = child.getItems();
+                Arrays.stream(stacks).filter(this).forEach(list::add);
+            }
+            ItemStack[] items = list.toArray(ItemStack[]::new);
+            cachedItems = cached = new CachedItems(items, generation);
         }
-
-        return list.toArray(ItemStack[]::new);
+        return cached.items();
     }
 
     @Override
     public boolean test(@Nullable ItemStack p_43914_) {
-        if (synchronizeWithContents())
-            return super.test(p_43914_);
+        if (p_43914_ == null)
+            return false;
+
+        if (synchronizeWithContents()) {
+            var membership = this.membership;
+            if (membership == null || !membership.isValid()) {
+                membership = ItemMembership.of(isEmpty(), super.getItems());
+                this.membership = membership;
+            }
+            return membership.test(p_43914_);
+        }
 
-        return children.stream().allMatch(c -> c.test(p_43914_));
+        for (Ingredient child : children) {
+            if (!child.test(p_43914_))
+                return false;
+        }
+        return true;
     }
 
     @Override
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.neoforge.common.crafting;
+
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import java.util.Set;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.Ingredient;
+
+/**
+ * Precomputed set of the items matched by item-only ingredients, used by custom ingredients for constant-time tests.
+ * Follows the matching rules of {@link Ingredient#test}: an empty ingredient only matches empty stacks,
+ * any other ingredient matches stacks whose item is in its {@linkplain Ingredient#getItems() items}.
+ *
+ * <p>Instances are immutable, and become stale when tags are reloaded, see {@link #isValid()}.
+ */
+final class ItemMembership {
+    private final int generation;
+    private final Set<Item> items;
+    private final boolean matchesEmpty;
+
+    private ItemMembership(Set<Item> items, boolean matchesEmpty) {
+        this.generation = CraftingHelper.getIngredientCacheGeneration();
+        this.items = items;
+        this.matchesEmpty = matchesEmpty;
+    }
+
+    /**
+     * Creates the membership of a single ingredient given its emptiness and items.
+     */
+    static ItemMembership of(boolean isEmpty, ItemStack[] stacks) {
+        var items = new ReferenceOpenHashSet<Item>();
+        if (!isEmpty) {
+            for (ItemStack stack : stacks)
+                items.add(stack.getItem());
+        }
+        return new ItemMembership(items, isEmpty);
+    }
+
+    /**
+     * Creates the membership matching a stack if any of the given ingredients match it.
+     * All the ingredients must be {@linkplain Ingredient#isSimple() simple}.
+     */
+    static ItemMembership anyOf(Iterable<Ingredient> ingredients) {
+        var items = new ReferenceOpenHashSet<Item>();
+        boolean matchesEmpty = false;
+        for (Ingredient ingredient : ingredients) {
+            if (ingredient.isEmpty()) {
+                matchesEmpty = true;
+            } else {
+                for (ItemStack stack : ingredient.getItems())
+                    items.add(stack.getItem());
+            }
+        }
+        return new ItemMembership(items, matchesEmpty);
+    }
+
+    /**
+     * {@return whether this membership was computed with the current tags}
+     */
+    boolean isValid() {
+        return generation == CraftingHelper.getIngredientCacheGeneration();
+    }
+
+    boolean test(ItemStack stack) {
+        return (matchesEmpty && stack.isEmpty()) || items.contains(stack.getItem());
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.neoforge.common.crafting;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.crafting.BlastingRecipe;
+import net.minecraft.world.item.crafting.CampfireCookingRecipe;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraft.world.item.crafting.RecipeHolder;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.item.crafting.RecipeType;
+import net.minecraft.world.item.crafting.ShapedRecipe;
+import net.minecraft.world.item.crafting.ShapelessRecipe;
+import net.minecraft.world.item.crafting.SmeltingRecipe;
+import net.minecraft.world.item.crafting.SmokingRecipe;
+import net.minecraft.world.item.crafting.StonecutterRecipe;
+import net.minecraft.world.level.Level;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Inverted index from items to the recipes that could possibly match a container holding them,
+ * used by {@link RecipeManager} to avoid testing every recipe of a type.
+ *
+ * <p>A recipe is indexed under the items of one of its simple, non-empty ingredients,
+ * since it can only match a container that contains one of these items.
+ * Recipes whose matching logic is not known to require all of their ingredients,
+ * or that do not have any simple ingredient (for example only {@link NBTIngredient}s or {@link DifferenceIngredient}s),
+ * are kept in a fallback bucket and are always tested.
+ * Candidates are tested in the original order of the recipes, so the result is the same as a linear search.
+ *
+ * <p>The index of each recipe type is built lazily on first use, once ingredients can resolve their tags.
+ * A new index is created whenever the recipes of the manager are replaced, i.e. on datapack reload.
+ * It is used by both {@code getRecipeFor} overloads of the recipe manager, so furnaces, crafters and crafting tables all go through it.
+ */
+@ApiStatus.Internal
+public final class RecipeCandidateIndex {
+    /**
+     * Recipe classes whose {@code matches} requires every ingredient to match an item of the container.
+     * Subclasses are not included since they may override {@code matches}.
+     */
+    private static final Set<Class<?>> INDEXABLE_RECIPE_CLASSES = Set.of(
+            ShapedRecipe.class,
+            ShapelessRecipe.class,
+            SmeltingRecipe.class,
+            BlastingRecipe.class,
+            SmokingRecipe.class,
+            CampfireCookingRecipe.class,
+            StonecutterRecipe.class);
+
+    /**
+     * Candidate set reused by the lookups of each thread, {@code null} while a lookup of that thread is using it.
+     */
+    private static final ThreadLocal<BitSet> SCRATCH_CANDIDATES = ThreadLocal.withInitial(BitSet::new);
+
+    private final Map<RecipeType<?>, Map<ResourceLocation, RecipeHolder<?>>> recipes;
+    private final Map<RecipeType<?>, TypeIndex> byType = new ConcurrentHashMap<>();
+
+    public RecipeCandidateIndex(Map<RecipeType<?>, Map<ResourceLocation, RecipeHolder<?>>> recipes) {
+        this.recipes = recipes;
+    }
+
+    /**
+     * {@return whether this index was built for the given recipes}
+     */
+    public boolean isFor(Map<RecipeType<?>, Map<ResourceLocation, RecipeHolder<?>>> recipes) {
+        return this.recipes == recipes;
+    }
+
+    /**
+     * {@return the first recipe of the given type that matches the container, in the order of the recipe manager}
+     */
+    @SuppressWarnings("unchecked")
+    public <C extends Container, T extends Recipe<C>> Optional<RecipeHolder<T>> findFirst(RecipeType<T> type, C container, Level level) {
+        TypeIndex index = byType.computeIfAbsent(type, t -> new TypeIndex(recipes.getOrDefault(t, Map.of()).values()));
+        BitSet candidates = SCRATCH_CANDIDATES.get();
+        if (candidates == null) {
+            // A recipe looked up recipes from its matches method, use a separate set
+            candidates = new BitSet();
+        } else {
+            SCRATCH_CANDIDATES.set(null);
+        }
+
+        try {
+            index.collectCandidates(container, candidates);
+            for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+                RecipeHolder<T> holder = (RecipeHolder<T>) index.recipes[i];
+                if (holder.value().matches(container, level))
+                    return Optional.of(holder);
+            }
+            return Optional.empty();
+        } finally {
+            candidates.clear();
+            SCRATCH_CANDIDATES.set(candidates);
+        }
+    }
+
+    private static final class TypeIndex {
+        private final RecipeHolder<?>[] recipes;
+        /**
+         * Item -> sorted indices of the recipes indexed under that item.
+         */
+        private final Reference2ObjectMap<Item, int[]> byItem;
+        /**
+         * Indices of the recipes that must always be tested.
+         */
+        private final BitSet fallback;
+
+        private TypeIndex(Collection<RecipeHolder<?>> holders) {
+            this.recipes = holders.toArray(RecipeHolder<?>[]::new);
+            this.fallback = new BitSet(recipes.length);
+
+            var lists = new Reference2ObjectOpenHashMap<Item, IntArrayList>();
+            for (int i = 0; i < recipes.length; ++i) {
+                ItemStack[] keyItems = findKeyItems(recipes[i].value());
+                if (keyItems == null) {
+                    fallback.set(i);
+                    continue;
+                }
+
+                for (ItemStack stack : keyItems) {
+                    IntArrayList list = lists.computeIfAbsent(stack.getItem(), item -> new IntArrayList());
+                    // Ingredients may list the same item several times
+                    if (list.isEmpty() || list.getInt(list.size() - 1) != i)
+                        list.add(i);
+                }
+            }
+
+            this.byItem = new Reference2ObjectOpenHashMap<>(lists.size());
+            for (var entry : lists.reference2ObjectEntrySet()) {
+                byItem.put(entry.getKey(), entry.getValue().toIntArray());
+            }
+        }
+
+        /**
+         * Adds the indices of the recipes that could match the container to the given empty set.
+         */
+        private void collectCandidates(Container container, BitSet candidates) {
+            candidates.or(fallback);
+            Item lastItem = null;
+            for (int slot = 0; slot < container.getContainerSize(); ++slot) {
+                ItemStack stack = container.getItem(slot);
+                if (stack.isEmpty() || stack.getItem() == lastItem)
+                    continue;
+
+                lastItem = stack.getItem();
+                int[] indices = byItem.get(lastItem);
+                if (indices != null) {
+                    for (int index : indices)
+                        candidates.set(index);
+                }
+            }
+        }
+
+        /**
+         * {@return the items of the simple ingredient of the recipe with the least items, or {@code null} if the recipe cannot be indexed}
+         */
+        @Nullable
+        private static ItemStack[] findKeyItems(Recipe<?> recipe) {
+            if (!INDEXABLE_RECIPE_CLASSES.contains(recipe.getClass()))
+                return null;
+
+            ItemStack[] best = null;
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                if (!ingredient.isSimple() || ingredient.isEmpty())
+                    continue;
+
+                ItemStack[] items = ingredient.getItems();
+                if (!canBeKey(items))
+                    continue;
+
+                if (best == null || items.length < best.length)
+                    best = items;
+            }
+            return best;
+        }
+
+        /**
+         * An ingredient that contains an empty stack could match an empty slot, so it cannot be used as a key.
+         */
+        private static boolean canBeKey(ItemStack[] items) {
+            if (items.length == 0)
+                return false;
+            for (ItemStack stack : items) {
+                if (stack.isEmpty())
+                    return false;
+            }
+            return true;
+        }
+    }
+}
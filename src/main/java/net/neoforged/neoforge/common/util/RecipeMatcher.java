@@ -5,11 +5,11 @@
 
 package net.neoforged.neoforge.common.util;
 
+import java.util.Arrays;
 import java.util.BitSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
 import java.util.function.Predicate;
+import org.jetbrains.annotations.Nullable;
 
 public class RecipeMatcher {
     /**
@@ -20,6 +20,9 @@ public class RecipeMatcher {
      * any test doesn't match a input
      * If we are unable to determine a proper pair
      *
+     * <p>Each test is evaluated exactly once against each input,
+     * then a perfect matching is searched for with the Hopcroft-Karp algorithm.
+     *
      * @return An array mapping inputs to tests. ret[x] = y means input[x] = test[y]
      */
     public static <T> int[] findMatches(List<T> inputs, List<? extends Predicate<T>> tests) {
@@ -27,109 +30,118 @@ public class RecipeMatcher {
         if (elements != tests.size())
             return null; // There will not be a 1:1 mapping of inputs -> tests
 
-        int[] ret = new int[elements];
-        for (int x = 0; x < elements; x++)
-            ret[x] = -1;
-
-        // [UnusedInputs] [UnusedIngredients] [IngredientMatchMask]...
-        BitSet data = new BitSet((elements + 2) * elements);
+        // Bit (test * elements + input) is set if the test matches the input
+        BitSet edges = new BitSet(elements * elements);
+        BitSet matchedInputs = new BitSet(elements);
         for (int x = 0; x < elements; x++) {
-            int matched = 0;
-            int offset = (x + 2) * elements;
+            int offset = x * elements;
             Predicate<T> test = tests.get(x);
+            boolean matched = false;
 
             for (int y = 0; y < elements; y++) {
-                if (data.get(y))
-                    continue;
-
                 if (test.test(inputs.get(y))) {
-                    data.set(offset + y);
-                    matched++;
+                    edges.set(offset + y);
+                    matchedInputs.set(y);
+                    matched = true;
                 }
             }
 
-            if (matched == 0)
+            if (!matched)
                 return null; //We have an test that matched non of the inputs
-
-            if (matched == 1) {
-                if (!claim(ret, data, x, elements))
-                    return null; //We failed to claim this index, which means it caused something else to go to 0 matches, which makes the whole thing fail
-            }
         }
 
-        if (data.nextClearBit(0) >= elements) //All items have been used, which means all tests have a match!
-            return ret;
+        if (matchedInputs.cardinality() != elements)
+            return null; //We have an input that matched none of the tests
 
-        // We should be in a state where multiple tests are satified by multiple inputs. So we need to try a branching recursive test.
-        // However for performance reasons, we should probably make that check a sub-set of the entire graph.
-        if (backtrack(data, ret, 0, elements))
-            return ret;
-
-        return null; //Backtrack failed, no matches, we cry and go home now :(
+        return new Matching(edges, elements).find();
     }
 
-    // This is bad... need to think of a better cascade, recursion instead of stack?
-    private static boolean claim(int[] ret, BitSet data, int claimed, int elements) {
-        Queue<Integer> pending = new LinkedList<Integer>();
-        pending.add(claimed);
-
-        while (pending.peek() != null) {
-            int test = pending.poll();
-            int offset = (test + 2) * elements;
-            int used = data.nextSetBit(offset) - offset;
-
-            if (used >= elements || used < 0)
-                throw new IllegalStateException("What? We matched something, but it wasn't set in the range of this test! Test: " + test + " Used: " + used);
-
-            data.set(used);
-            data.set(elements + test);
-            ret[used] = test;
-
-            for (int x = 0; x < elements; x++) {
-                offset = (x + 2) * elements;
-                if (data.get(offset + used) && !data.get(elements + x)) {
-                    data.clear(offset + used);
-                    int count = 0;
-                    for (int y = offset; y < offset + elements; y++)
-                        if (data.get(y))
-                            count++;
-
-                    if (count == 0)
-                        return false; //Claiming this caused another test to lose its last match..
+    /**
+     * Hopcroft-Karp maximum bipartite matching between tests and inputs.
+     */
+    private static class Matching {
+        private static final int UNMATCHED = -1;
+        private static final int INFINITY = Integer.MAX_VALUE;
+
+        private final BitSet edges;
+        private final int elements;
+        private final int[] testToInput;
+        private final int[] inputToTest;
+        private final int[] distance;
+        private final int[] queue;
+
+        private Matching(BitSet edges, int elements) {
+            this.edges = edges;
+            this.elements = elements;
+            this.testToInput = new int[elements];
+            this.inputToTest = new int[elements];
+            this.distance = new int[elements];
+            this.queue = new int[elements];
+            Arrays.fill(testToInput, UNMATCHED);
+            Arrays.fill(inputToTest, UNMATCHED);
+        }
 
-                    if (count == 1)
-                        pending.add(x);
+        @Nullable
+        private int[] find() {
+            int matched = 0;
+            while (buildLayers()) {
+                for (int test = 0; test < elements; test++) {
+                    if (testToInput[test] == UNMATCHED && augment(test))
+                        matched++;
                 }
             }
+            return matched == elements ? inputToTest : null;
         }
 
-        return true;
-    }
-
-    //We use recursion here, why? Because I feel like it. Also because we should only ever be working in data sets < 9
-    private static boolean backtrack(BitSet data, int[] ret, int start, int elements) {
-        int test = data.nextClearBit(elements + start) - elements;
-        if (test >= elements)
-            return true; //Could not find the next unused test.
-
-        if (test < 0)
-            throw new IllegalStateException("This should never happen, negative test in backtrack!");
-
-        int offset = (test + 2) * elements;
-        for (int x = 0; x < elements; x++) {
-            if (!data.get(offset + x) || data.get(x))
-                continue;
-
-            data.set(x);
-
-            if (backtrack(data, ret, test + 1, elements)) {
-                ret[x] = test;
-                return true;
+        /**
+         * Computes the BFS layers starting from the free tests.
+         *
+         * @return whether an augmenting path exists
+         */
+        private boolean buildLayers() {
+            int head = 0, tail = 0;
+            for (int test = 0; test < elements; test++) {
+                if (testToInput[test] == UNMATCHED) {
+                    distance[test] = 0;
+                    queue[tail++] = test;
+                } else {
+                    distance[test] = INFINITY;
+                }
             }
 
-            data.clear(x);
+            boolean found = false;
+            while (head < tail) {
+                int test = queue[head++];
+                int offset = test * elements;
+                for (int input = edges.nextSetBit(offset) - offset; input >= 0 && input < elements; input = edges.nextSetBit(offset + input + 1) - offset) {
+                    int next = inputToTest[input];
+                    if (next == UNMATCHED) {
+                        found = true;
+                    } else if (distance[next] == INFINITY) {
+                        distance[next] = distance[test] + 1;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            return found;
         }
 
-        return false;
+        /**
+         * Searches an augmenting path from a test along the BFS layers, and flips it if found.
+         */
+        private boolean augment(int test) {
+            int offset = test * elements;
+            for (int input = edges.nextSetBit(offset) - offset; input >= 0 && input < elements; input = edges.nextSetBit(offset + input + 1) - offset) {
+                int next = inputToTest[input];
+                if (next == UNMATCHED || (distance[next] == distance[test] + 1 && augment(next))) {
+                    testToInput[test] = input;
+                    inputToTest[input] = test;
+                    return true;
+                }
+            }
+            // Dead end, remove the test from the layers for this phase
+            distance[test] = INFINITY;
+            return false;
+        }
     }
 }
@@ -5,6 +5,7 @@
 
 package net.neoforged.neoforge.items;
 
+import java.util.function.Predicate;
 import net.minecraft.world.Container;
 import net.minecraft.world.item.ItemStack;
 import net.neoforged.neoforge.fluids.FluidStack;
@@ -103,4 +104,161 @@ public interface IItemHandler {
      *         false if the slot can never insert the ItemStack in any situation.
      */
     boolean isItemValid(int slot, @NotNull ItemStack stack);
+
+    /**
+     * Returns whether all the slots of this handler are empty.
+     * <p>
+     * Implementations can override this to avoid querying every slot.
+     * </p>
+     *
+     * @return true if every slot is empty.
+     */
+    default boolean isEmpty() {
+        for (int slot = 0; slot < getSlots(); slot++) {
+            if (!getStackInSlot(slot).isEmpty())
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether every slot of this handler holds as many items as its {@linkplain #getSlotLimit(int) limit} allows,
+     * in which case nothing can be inserted into it.
+     * <p>
+     * Implementations can override this to avoid querying every slot.
+     * </p>
+     *
+     * @return true if no slot has room left.
+     */
+    default boolean isFull() {
+        for (int slot = 0; slot < getSlots(); slot++) {
+            ItemStack stackInSlot = getStackInSlot(slot);
+            if (stackInSlot.isEmpty() || stackInSlot.getCount() < getSlotLimit(slot))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether at least one item of the given stack can currently be inserted into this handler.
+     * <p>
+     * Unlike {@link #isFull()}, this takes the item into account: the free room of a handler may only accept some items.
+     * This is equivalent to simulating the insertion of a single item with {@link #insertItemAnywhere(ItemStack, boolean)}.
+     * Implementations can override this to avoid simulating the insertion.
+     * </p>
+     *
+     * @param stack ItemStack to test. This must not be modified by the item handler.
+     * @return true if at least one item of the stack can be inserted.
+     */
+    default boolean hasSpaceFor(@NotNull ItemStack stack) {
+        return !stack.isEmpty() && insertItemAnywhere(stack.copyWithCount(1), true).isEmpty();
+    }
+
+    /**
+     * Inserts an ItemStack into the slots of this handler, in slot order, and returns the remainder.
+     * The ItemStack <em>should not</em> be modified in this function!
+     * <p>
+     * This is equivalent to calling {@link #insertItem(int, ItemStack, boolean)} on every slot until the stack is fully inserted.
+     * Implementations can override this to skip the slots that cannot accept the stack.
+     * </p>
+     *
+     * @param stack    ItemStack to insert. This must not be modified by the item handler.
+     * @param simulate If true, the insertion is only simulated
+     * @return The remaining ItemStack that was not inserted (if the entire stack is accepted, then return an empty ItemStack).
+     *         The returned ItemStack can be safely modified after.
+     */
+    @NotNull
+    default ItemStack insertItemAnywhere(@NotNull ItemStack stack, boolean simulate) {
+        for (int slot = 0; slot < getSlots() && !stack.isEmpty(); slot++) {
+            stack = insertItem(slot, stack, simulate);
+        }
+        return stack;
+    }
+
+    /**
+     * Inserts an ItemStack into this handler, filling up already present stacks first, and returns the remainder.
+     * This is equivalent to the behaviour of a player picking up an item.
+     * The ItemStack <em>should not</em> be modified in this function!
+     * <p>
+     * Note: This function stacks items without subtypes with different metadata together.
+     * Implementations can override this to only visit the slots that can accept the stack.
+     * </p>
+     *
+     * @param stack    ItemStack to insert. This must not be modified by the item handler.
+     * @param simulate If true, the insertion is only simulated
+     * @return The remaining ItemStack that was not inserted (if the entire stack is accepted, then return an empty ItemStack).
+     *         The returned ItemStack can be safely modified after.
+     * @see ItemHandlerHelper#insertItemStacked(IItemHandler, ItemStack, boolean)
+     */
+    @NotNull
+    default ItemStack insertItemStacked(@NotNull ItemStack stack, boolean simulate) {
+        if (stack.isEmpty())
+            return stack;
+
+        // not stackable -> just insert into a new slot
+        if (!stack.isStackable())
+            return insertItemAnywhere(stack, simulate);
+
+        int sizeInventory = getSlots();
+
+        // go through the inventory and try to fill up already existing items
+        for (int i = 0; i < sizeInventory; i++) {
+            ItemStack slot = getStackInSlot(i);
+            if (ItemHandlerHelper.canItemStacksStackRelaxed(slot, stack)) {
+                stack = insertItem(i, stack, simulate);
+
+                if (stack.isEmpty()) {
+                    return ItemStack.EMPTY;
+                }
+            }
+        }
+
+        // insert remainder into empty slots
+        for (int i = 0; i < sizeInventory && !stack.isEmpty(); i++) {
+            if (getStackInSlot(i).isEmpty())
+                stack = insertItem(i, stack, simulate);
+        }
+
+        return stack;
+    }
+
+    /**
+     * Extracts up to {@code amount} items from the slots of this handler, in slot order.
+     * The first slot whose stack matches the filter determines the extracted item,
+     * further items are only extracted from the slots whose stack can stack with it.
+     * <p>
+     * The returned value must be empty if nothing is extracted,
+     * otherwise its stack size must be less than or equal to {@code amount} and {@link ItemStack#getMaxStackSize()}.
+     * </p>
+     *
+     * @param filter   Filter tested against the stacks in the slots, to find the item to extract.
+     * @param amount   Amount to extract (may be greater than the current stack's max limit)
+     * @param simulate If true, the extraction is only simulated
+     * @return ItemStack extracted from the handler, must be empty if nothing can be extracted.
+     *         The returned ItemStack can be safely modified after.
+     */
+    @NotNull
+    default ItemStack extractMatchingItem(Predicate<ItemStack> filter, int amount, boolean simulate) {
+        ItemStack extracted = ItemStack.EMPTY;
+        int limit = amount;
+        for (int slot = 0; slot < getSlots() && extracted.getCount() < limit; slot++) {
+            ItemStack stackInSlot = getStackInSlot(slot);
+            if (stackInSlot.isEmpty())
+                continue;
+            if (extracted.isEmpty() ? !filter.test(stackInSlot) : !ItemHandlerHelper.canItemStacksStack(extracted, stackInSlot))
+                continue;
+
+            ItemStack extractedFromSlot = extractItem(slot, limit - extracted.getCount(), simulate);
+            if (extractedFromSlot.isEmpty())
+                continue;
+
+            if (extracted.isEmpty()) {
+                extracted = extractedFromSlot;
+                limit = Math.min(limit, extracted.getMaxStackSize());
+            } else {
+                extracted.grow(extractedFromSlot.getCount());
+            }
+        }
+        return extracted;
+    }
 }
@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.neoforge.items;
+
+import it.unimi.dsi.fastutil.ints.IntRBTreeSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import java.util.BitSet;
+import java.util.function.Predicate;
+import net.minecraft.core.NonNullList;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An {@link ItemStackHandler} that keeps an index of its empty slots and of the slots holding each item,
+ * so that inserting or extracting a given item does not need to scan every slot.
+ * This is meant for handlers with many slots, for smaller handlers the plain {@link ItemStackHandler} is cheaper.
+ * <p>
+ * The index is updated in {@link #onContentsChanged(int)} and rebuilt in {@link #onLoad()},
+ * subclasses overriding these methods must call the super method.
+ * Like for any item handler, the stacks returned by {@link #getStackInSlot(int)} must not be modified,
+ * otherwise the index may not reflect the contents of the handler anymore.
+ * <p>
+ * The lookups return the same slots as the scans of {@link ItemStackHandler}, in the same order.
+ */
+public class IndexedItemStackHandler extends ItemStackHandler {
+    private final BitSet emptySlots = new BitSet();
+    private final Reference2ObjectOpenHashMap<Item, IntSortedSet> slotsByItem = new Reference2ObjectOpenHashMap<>();
+    /**
+     * The item each slot is currently indexed under, {@code null} for empty slots.
+     */
+    private Item[] indexedItems = new Item[0];
+    private int nonEmptySlots;
+
+    public IndexedItemStackHandler() {
+        this(1);
+    }
+
+    public IndexedItemStackHandler(int size) {
+        super(size);
+        rebuildIndex();
+    }
+
+    public IndexedItemStackHandler(NonNullList<ItemStack> stacks) {
+        super(stacks);
+        rebuildIndex();
+    }
+
+    @Override
+    public void setSize(int size) {
+        super.setSize(size);
+        rebuildIndex();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return nonEmptySlots == 0;
+    }
+
+    @Override
+    @NotNull
+    public ItemStack insertItemAnywhere(@NotNull ItemStack stack, boolean simulate) {
+        if (stack.isEmpty())
+            return ItemStack.EMPTY;
+
+        // Only the empty slots and the slots holding the same item can accept the stack, try them in slot order
+        Item item = stack.getItem();
+        int slot = nextCandidateSlot(item, 0);
+        while (slot >= 0 && !stack.isEmpty()) {
+            stack = insertItem(slot, stack, simulate);
+            slot = nextCandidateSlot(item, slot + 1);
+        }
+        return stack;
+    }
+
+    @Override
+    @NotNull
+    public ItemStack insertItemStacked(@NotNull ItemStack stack, boolean simulate) {
+        if (stack.isEmpty())
+            return stack;
+
+        if (!stack.isStackable())
+            return insertItemAnywhere(stack, simulate);
+
+        IntSortedSet slots = slotsByItem.get(stack.getItem());
+        if (slots != null) {
+            // Copy the slots, since inserting may change the index
+            for (int slot : slots.toIntArray()) {
+                if (ItemHandlerHelper.canItemStacksStackRelaxed(getStackInSlot(slot), stack)) {
+                    stack = insertItem(slot, stack, simulate);
+                    if (stack.isEmpty())
+                        return ItemStack.EMPTY;
+                }
+            }
+        }
+
+        for (int slot = emptySlots.nextSetBit(0); slot >= 0 && !stack.isEmpty(); slot = emptySlots.nextSetBit(slot + 1)) {
+            stack = insertItem(slot, stack, simulate);
+        }
+        return stack;
+    }
+
+    @Override
+    @NotNull
+    public ItemStack extractMatchingItem(Predicate<ItemStack> filter, int amount, boolean simulate) {
+        // Find the first non-empty slot matching the filter, then only look at the slots holding the same item
+        for (int slot = emptySlots.nextClearBit(0); slot < stacks.size(); slot = emptySlots.nextClearBit(slot + 1)) {
+            ItemStack stackInSlot = stacks.get(slot);
+            if (stackInSlot.isEmpty() || !filter.test(stackInSlot))
+                continue;
+
+            ItemStack extracted = extractItem(slot, amount, simulate);
+            if (extracted.isEmpty())
+                continue;
+
+            int limit = Math.min(amount, extracted.getMaxStackSize());
+            IntSortedSet slots = slotsByItem.get(extracted.getItem());
+            if (slots != null && extracted.getCount() < limit) {
+                // Copy the slots, since extracting may change the index
+                for (int other : slots.tailSet(slot + 1).toIntArray()) {
+                    if (!ItemHandlerHelper.canItemStacksStack(extracted, stacks.get(other)))
+                        continue;
+
+                    extracted.grow(extractItem(other, limit - extracted.getCount(), simulate).getCount());
+                    if (extracted.getCount() >= limit)
+                        break;
+                }
+            }
+            return extracted;
+        }
+        return ItemStack.EMPTY;
+    }
+
+    /**
+     * {@return the first slot at or after {@code from} that is empty or holds the given item, or {@code -1} if there is none}
+     */
+    private int nextCandidateSlot(Item item, int from) {
+        int empty = emptySlots.nextSetBit(from);
+        IntSortedSet slots = slotsByItem.get(item);
+        if (slots != null) {
+            IntSortedSet tail = slots.tailSet(from);
+            if (!tail.isEmpty() && (empty < 0 || tail.firstInt() < empty))
+                return tail.firstInt();
+        }
+        return empty;
+    }
+
+    @Override
+    protected void onLoad() {
+        super.onLoad();
+        rebuildIndex();
+    }
+
+    @Override
+    protected void onContentsChanged(int slot) {
+        super.onContentsChanged(slot);
+        updateIndex(slot);
+    }
+
+    private void rebuildIndex() {
+        emptySlots.clear();
+        slotsByItem.clear();
+        nonEmptySlots = 0;
+        indexedItems = new Item[stacks.size()];
+        emptySlots.set(0, stacks.size());
+        for (int slot = 0; slot < stacks.size(); slot++) {
+            updateIndex(slot);
+        }
+    }
+
+    private void updateIndex(int slot) {
+        ItemStack stack = stacks.get(slot);
+        Item item = stack.isEmpty() ? null : stack.getItem();
+        Item previous = indexedItems[slot];
+        if (previous == item)
+            return;
+
+        indexedItems[slot] = item;
+        if (previous != null) {
+            IntSortedSet slots = slotsByItem.get(previous);
+            slots.remove(slot);
+            if (slots.isEmpty())
+                slotsByItem.remove(previous);
+        }
+        addToIndex(slot, item);
+        if (previous == null) {
+            nonEmptySlots++;
+        } else if (item == null) {
+            nonEmptySlots--;
+        }
+    }
+
+    private void addToIndex(int slot, @Nullable Item item) {
+        if (item == null) {
+            emptySlots.set(slot);
+        } else {
+            emptySlots.clear(slot);
+            slotsByItem.computeIfAbsent(item, i -> new IntRBTreeSet()).add(slot);
+        }
+    }
+}
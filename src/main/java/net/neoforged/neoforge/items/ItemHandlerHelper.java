@@ -22,14 +22,7 @@ public class ItemHandlerHelper {
         if (dest == null || stack.isEmpty())
             return stack;
 
-        for (int i = 0; i < dest.getSlots(); i++) {
-            stack = dest.insertItem(i, stack, simulate);
-            if (stack.isEmpty()) {
-                return ItemStack.EMPTY;
-            }
-        }
-
-        return stack;
+        return dest.insertItemAnywhere(stack, simulate);
     }
 
     public static boolean canItemStacksStack(@NotNull ItemStack a, @NotNull ItemStack b) {
@@ -76,45 +69,15 @@ public class ItemHandlerHelper {
      * Inserts the ItemStack into the inventory, filling up already present stacks first.
      * This is equivalent to the behaviour of a player picking up an item.
      * Note: This function stacks items without subtypes with different metadata together.
+     *
+     * @see IItemHandler#insertItemStacked(ItemStack, boolean)
      */
     @NotNull
     public static ItemStack insertItemStacked(IItemHandler inventory, @NotNull ItemStack stack, boolean simulate) {
         if (inventory == null || stack.isEmpty())
             return stack;
 
-        // not stackable -> just insert into a new slot
-        if (!stack.isStackable()) {
-            return insertItem(inventory, stack, simulate);
-        }
-
-        int sizeInventory = inventory.getSlots();
-
-        // go through the inventory and try to fill up already existing items
-        for (int i = 0; i < sizeInventory; i++) {
-            ItemStack slot = inventory.getStackInSlot(i);
-            if (canItemStacksStackRelaxed(slot, stack)) {
-                stack = inventory.insertItem(i, stack, simulate);
-
-                if (stack.isEmpty()) {
-                    break;
-                }
-            }
-        }
-
-        // insert remainder into empty slots
-        if (!stack.isEmpty()) {
-            // find empty slot
-            for (int i = 0; i < sizeInventory; i++) {
-                if (inventory.getStackInSlot(i).isEmpty()) {
-                    stack = inventory.insertItem(i, stack, simulate);
-                    if (stack.isEmpty()) {
-                        break;
-                    }
-                }
-            }
-        }
-
-        return stack;
+        return inventory.insertItemStacked(stack, simulate);
     }
 
     /** giveItemToPlayer without preferred slot */
@@ -34,7 +34,7 @@ public class VanillaHopperItemHandler extends InvWrapper {
                     // This cooldown is always set to 8 in vanilla with one exception:
                     // Hopper -> Hopper transfer sets this cooldown to 7 when this hopper
                     // has not been updated as recently as the one pushing items into it.
-                    // This vanilla behavior is preserved by VanillaInventoryCodeHooks#insertStack,
+                    // This vanilla behavior is preserved by VanillaInventoryCodeHooks#putStackInInventoryAllSlots,
                     // the cooldown is set properly by the hopper that is pushing items into this one.
                     hopper.setCooldown(8);
                 }
@@ -6,11 +6,10 @@
 package net.neoforged.neoforge.items;
 
 import java.util.List;
-import java.util.Optional;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.entity.Entity;
-import net.minecraft.world.entity.EntitySelector;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.DropperBlock;
@@ -21,9 +20,10 @@ import net.minecraft.world.level.block.entity.Hopper;
 import net.minecraft.world.level.block.entity.HopperBlockEntity;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.AABB;
+import net.neoforged.neoforge.capabilities.BlockCapabilityCache;
 import net.neoforged.neoforge.capabilities.Capabilities;
-import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.apache.commons.lang3.tuple.Pair;
+import net.neoforged.neoforge.capabilities.EntityCapability;
+import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -35,33 +35,42 @@ public class VanillaInventoryCodeHooks {
      */
     @Nullable
     public static Boolean extractHook(Level level, Hopper dest) {
-        return getSourceItemHandler(level, dest)
-                .map(itemHandlerResult -> {
-                    IItemHandler handler = itemHandlerResult.getKey();
-
-                    for (int i = 0; i < handler.getSlots(); i++) {
-                        ItemStack extractItem = handler.extractItem(i, 1, true);
-                        if (!extractItem.isEmpty()) {
-                            for (int j = 0; j < dest.getContainerSize(); j++) {
-                                ItemStack destStack = dest.getItem(j);
-                                if (dest.canPlaceItem(j, extractItem) && (destStack.isEmpty() || destStack.getCount() < destStack.getMaxStackSize() && destStack.getCount() < dest.getMaxStackSize() && ItemHandlerHelper.canItemStacksStack(extractItem, destStack))) {
-                                    extractItem = handler.extractItem(i, 1, false);
-                                    if (destStack.isEmpty())
-                                        dest.setItem(j, extractItem);
-                                    else {
-                                        destStack.grow(1);
-                                        dest.setItem(j, destStack);
-                                    }
-                                    dest.setChanged();
-                                    return true;
-                                }
-                            }
-                        }
-                    }
+        ItemHandlerTarget source = getSourceItemHandler(level, dest);
+        if (source == null)
+            return null; // TODO bad null
+
+        IItemHandler handler = source.itemHandler();
+        if (handler.isEmpty())
+            return false;
+
+        // Extract one item from the first slot whose item fits in the hopper, without simulating the extraction from every slot
+        ItemStack extractItem = handler.extractMatchingItem(stack -> getDestinationSlot(dest, stack) >= 0, 1, false);
+        if (extractItem.isEmpty())
+            return false;
+
+        int j = getDestinationSlot(dest, extractItem);
+        ItemStack destStack = dest.getItem(j);
+        if (destStack.isEmpty())
+            dest.setItem(j, extractItem);
+        else {
+            destStack.grow(1);
+            dest.setItem(j, destStack);
+        }
+        dest.setChanged();
+        return true;
+    }
 
-                    return false;
-                })
-                .orElse(null); // TODO bad null
+    /**
+     * {@return the first slot of the hopper that can accept one item of the given stack, or {@code -1} if there is none}
+     */
+    private static int getDestinationSlot(Hopper dest, ItemStack stack) {
+        for (int j = 0; j < dest.getContainerSize(); j++) {
+            ItemStack destStack = dest.getItem(j);
+            if (dest.canPlaceItem(j, stack) && (destStack.isEmpty() || destStack.getCount() < destStack.getMaxStackSize() && destStack.getCount() < dest.getMaxStackSize() && ItemHandlerHelper.canItemStacksStack(stack, destStack))) {
+                return j;
+            }
+        }
+        return -1;
     }
 
     /**
@@ -69,24 +78,22 @@ public class VanillaInventoryCodeHooks {
      */
     public static boolean dropperInsertHook(Level level, BlockPos pos, DispenserBlockEntity dropper, int slot, @NotNull ItemStack stack) {
         Direction facing = level.getBlockState(pos).getValue(DropperBlock.FACING);
-        return getAttachedItemHandler(level, pos, facing)
-                .map(destinationResult -> {
-                    IItemHandler itemHandler = destinationResult.getKey();
-                    Object destination = destinationResult.getValue();
-                    ItemStack dispensedStack = stack.copy().split(1);
-                    ItemStack remainder = putStackInInventoryAllSlots(dropper, destination, itemHandler, dispensedStack);
+        ItemHandlerTarget destinationResult = getAttachedItemHandler(level, pos, facing);
+        if (destinationResult == null)
+            return true;
 
-                    if (remainder.isEmpty()) {
-                        remainder = stack.copy();
-                        remainder.shrink(1);
-                    } else {
-                        remainder = stack.copy();
-                    }
+        ItemStack dispensedStack = stack.copy().split(1);
+        ItemStack remainder = putStackInInventoryAllSlots(dropper, destinationResult.destination(), destinationResult.itemHandler(), dispensedStack);
+
+        if (remainder.isEmpty()) {
+            remainder = stack.copy();
+            remainder.shrink(1);
+        } else {
+            remainder = stack.copy();
+        }
 
-                    dropper.setItem(slot, remainder);
-                    return false;
-                })
-                .orElse(true);
+        dropper.setItem(slot, remainder);
+        return false;
     }
 
     /**
@@ -94,109 +101,112 @@ public class VanillaInventoryCodeHooks {
      */
     public static boolean insertHook(HopperBlockEntity hopper) {
         Direction hopperFacing = hopper.getBlockState().getValue(HopperBlock.FACING);
-        return getAttachedItemHandler(hopper.getLevel(), hopper.getBlockPos(), hopperFacing)
-                .map(destinationResult -> {
-                    IItemHandler itemHandler = destinationResult.getKey();
-                    Object destination = destinationResult.getValue();
-                    if (isFull(itemHandler)) {
-                        return false;
-                    } else {
-                        for (int i = 0; i < hopper.getContainerSize(); ++i) {
-                            if (!hopper.getItem(i).isEmpty()) {
-                                ItemStack originalSlotContents = hopper.getItem(i).copy();
-                                ItemStack insertStack = hopper.removeItem(i, 1);
-                                ItemStack remainder = putStackInInventoryAllSlots(hopper, destination, itemHandler, insertStack);
-
-                                if (remainder.isEmpty()) {
-                                    return true;
-                                }
-
-                                hopper.setItem(i, originalSlotContents);
-                            }
-                        }
-
-                        return false;
+        ItemHandlerTarget destinationResult = getAttachedItemHandler(hopper, hopperFacing);
+        if (destinationResult == null)
+            return false;
+
+        IItemHandler itemHandler = destinationResult.itemHandler();
+        Object destination = destinationResult.destination();
+        if (itemHandler.isFull()) {
+            return false;
+        } else {
+            for (int i = 0; i < hopper.getContainerSize(); ++i) {
+                // Skip the items that do not fit, instead of removing them from the hopper and putting them back
+                if (!hopper.getItem(i).isEmpty() && itemHandler.hasSpaceFor(hopper.getItem(i))) {
+                    ItemStack originalSlotContents = hopper.getItem(i).copy();
+                    ItemStack insertStack = hopper.removeItem(i, 1);
+                    ItemStack remainder = putStackInInventoryAllSlots(hopper, destination, itemHandler, insertStack);
+
+                    if (remainder.isEmpty()) {
+                        return true;
                     }
-                })
-                .orElse(false);
-    }
 
-    private static ItemStack putStackInInventoryAllSlots(BlockEntity source, Object destination, IItemHandler destInventory, ItemStack stack) {
-        for (int slot = 0; slot < destInventory.getSlots() && !stack.isEmpty(); slot++) {
-            stack = insertStack(source, destination, destInventory, stack, slot);
+                    hopper.setItem(i, originalSlotContents);
+                }
+            }
+
+            return false;
         }
-        return stack;
     }
 
     /**
-     * Copied from TileEntityHopper#insertStack and added capability support
+     * Copied from TileEntityHopper#addItem and added capability support
      */
-    private static ItemStack insertStack(BlockEntity source, Object destination, IItemHandler destInventory, ItemStack stack, int slot) {
-        ItemStack itemstack = destInventory.getStackInSlot(slot);
-
-        if (destInventory.insertItem(slot, stack, true).isEmpty()) {
-            boolean insertedItem = false;
-            boolean inventoryWasEmpty = isEmpty(destInventory);
-
-            if (itemstack.isEmpty()) {
-                destInventory.insertItem(slot, stack, false);
-                stack = ItemStack.EMPTY;
-                insertedItem = true;
-            } else if (ItemHandlerHelper.canItemStacksStack(itemstack, stack)) {
-                int originalSize = stack.getCount();
-                stack = destInventory.insertItem(slot, stack, false);
-                insertedItem = originalSize < stack.getCount();
-            }
+    private static ItemStack putStackInInventoryAllSlots(BlockEntity source, Object destination, IItemHandler destInventory, ItemStack stack) {
+        // Only a destination hopper that was empty before the insertion gets a cooldown
+        boolean inventoryWasEmpty = destination instanceof HopperBlockEntity && destInventory.isEmpty();
+        int originalSize = stack.getCount();
+        // The stacks moved by hoppers and droppers have a single item, so they either fit in a slot or not at all
+        stack = destInventory.insertItemAnywhere(stack, false);
 
-            if (insertedItem) {
-                if (inventoryWasEmpty && destination instanceof HopperBlockEntity) {
-                    HopperBlockEntity destinationHopper = (HopperBlockEntity) destination;
-
-                    if (!destinationHopper.isOnCustomCooldown()) {
-                        int k = 0;
-                        if (source instanceof HopperBlockEntity) {
-                            if (destinationHopper.getLastUpdateTime() >= ((HopperBlockEntity) source).getLastUpdateTime()) {
-                                k = 1;
-                            }
-                        }
-                        destinationHopper.setCooldown(8 - k);
+        if (inventoryWasEmpty && stack.getCount() < originalSize) {
+            HopperBlockEntity destinationHopper = (HopperBlockEntity) destination;
+
+            if (!destinationHopper.isOnCustomCooldown()) {
+                int k = 0;
+                if (source instanceof HopperBlockEntity) {
+                    if (destinationHopper.getLastUpdateTime() >= ((HopperBlockEntity) source).getLastUpdateTime()) {
+                        k = 1;
                     }
                 }
+                destinationHopper.setCooldown(8 - k);
             }
         }
 
         return stack;
     }
 
-    private static boolean isFull(IItemHandler itemHandler) {
-        for (int slot = 0; slot < itemHandler.getSlots(); slot++) {
-            ItemStack stackInSlot = itemHandler.getStackInSlot(slot);
-            if (stackInSlot.isEmpty() || stackInSlot.getCount() < itemHandler.getSlotLimit(slot)) {
-                return false;
-            }
-        }
-        return true;
+    @Nullable
+    private static ItemHandlerTarget getAttachedItemHandler(Level level, BlockPos pos, Direction direction) {
+        return getItemHandlerAt(level, pos.getX() + direction.getStepX() + 0.5, pos.getY() + direction.getStepY() + 0.5, pos.getZ() + direction.getStepZ() + 0.5, direction.getOpposite());
     }
 
-    private static boolean isEmpty(IItemHandler itemHandler) {
-        for (int slot = 0; slot < itemHandler.getSlots(); slot++) {
-            ItemStack stackInSlot = itemHandler.getStackInSlot(slot);
-            if (stackInSlot.getCount() > 0) {
-                return false;
-            }
+    @Nullable
+    private static ItemHandlerTarget getAttachedItemHandler(HopperBlockEntity hopper, Direction direction) {
+        BlockPos pos = hopper.getBlockPos();
+        CachedItemHandler cache = getCachedItemHandler(hopper, false, pos.relative(direction), direction.getOpposite());
+        if (cache == null)
+            return getAttachedItemHandler(hopper.getLevel(), pos, direction);
+        return getItemHandlerAt(cache, pos.getX() + direction.getStepX() + 0.5, pos.getY() + direction.getStepY() + 0.5, pos.getZ() + direction.getStepZ() + 0.5);
+    }
+
+    @Nullable
+    private static ItemHandlerTarget getSourceItemHandler(Level level, Hopper hopper) {
+        if (hopper instanceof HopperBlockEntity hopperBlockEntity) {
+            CachedItemHandler cache = getCachedItemHandler(hopperBlockEntity, true, hopperBlockEntity.getBlockPos().above(), Direction.DOWN);
+            if (cache != null)
+                return getItemHandlerAt(cache, hopper.getLevelX(), hopper.getLevelY() + 1.0, hopper.getLevelZ());
         }
-        return true;
+        return getItemHandlerAt(level, hopper.getLevelX(), hopper.getLevelY() + 1.0, hopper.getLevelZ(), Direction.DOWN);
     }
 
-    private static Optional<Pair<IItemHandler, Object>> getAttachedItemHandler(Level level, BlockPos pos, Direction direction) {
-        return getItemHandlerAt(level, pos.getX() + direction.getStepX() + 0.5, pos.getY() + direction.getStepY() + 0.5, pos.getZ() + direction.getStepZ() + 0.5, direction.getOpposite());
+    /**
+     * {@return the cache of the hopper for the given target, creating it if the hopper does not have one or it is for another target}
+     * Returns {@code null} if the hopper is not in a server level, in which case capabilities cannot be cached.
+     */
+    @Nullable
+    private static CachedItemHandler getCachedItemHandler(HopperBlockEntity hopper, boolean source, BlockPos pos, Direction side) {
+        CachedItemHandler cache = hopper.getCachedItemHandler(source);
+        if (cache == null || cache.side != side || !cache.capabilityCache.pos().equals(pos)) {
+            if (!(hopper.getLevel() instanceof ServerLevel serverLevel))
+                return null;
+            cache = new CachedItemHandler(serverLevel, pos, side, hopper, source);
+            hopper.setCachedItemHandler(source, cache);
+        }
+        return cache;
     }
 
-    private static Optional<Pair<IItemHandler, Object>> getSourceItemHandler(Level level, Hopper hopper) {
-        return getItemHandlerAt(level, hopper.getLevelX(), hopper.getLevelY() + 1.0, hopper.getLevelZ(), Direction.DOWN);
+    @Nullable
+    private static ItemHandlerTarget getItemHandlerAt(CachedItemHandler cache, double x, double y, double z) {
+        ItemHandlerTarget blockTarget = cache.getTarget();
+        if (blockTarget != null)
+            return blockTarget;
+
+        return getEntityItemHandlerAt(cache.capabilityCache.level(), x, y, z, cache.side);
     }
 
-    private static Optional<Pair<IItemHandler, Object>> getItemHandlerAt(Level worldIn, double x, double y, double z, final Direction side) {
+    @Nullable
+    private static ItemHandlerTarget getItemHandlerAt(Level worldIn, double x, double y, double z, final Direction side) {
         BlockPos blockpos = BlockPos.containing(x, y, z);
         BlockState state = worldIn.getBlockState(blockpos);
         BlockEntity blockEntity = state.hasBlockEntity() ? worldIn.getBlockEntity(blockpos) : null;
@@ -204,18 +214,61 @@ public class VanillaInventoryCodeHooks {
         // Look for block capability first
         var blockCap = worldIn.getCapability(Capabilities.ItemHandler.BLOCK, blockpos, state, blockEntity, side);
         if (blockCap != null)
-            return Optional.of(ImmutablePair.of(blockCap, blockEntity));
+            return new ItemHandlerTarget(blockCap, blockEntity);
 
-        // Otherwise fallback to automation entity capability
+        return getEntityItemHandlerAt(worldIn, x, y, z, side);
+    }
+
+    @Nullable
+    private static ItemHandlerTarget getEntityItemHandlerAt(Level worldIn, double x, double y, double z, final Direction side) {
+        // Fallback to automation entity capability
+        // Only entities that can have the capability are considered, like vanilla only considers container entities.
         // Note: the isAlive check matches what vanilla does for hoppers in EntitySelector.CONTAINER_ENTITY_SELECTOR
-        List<Entity> list = worldIn.getEntities((Entity) null, new AABB(x - 0.5D, y - 0.5D, z - 0.5D, x + 0.5D, y + 0.5D, z + 0.5D), EntitySelector.ENTITY_STILL_ALIVE);
+        EntityCapability<IItemHandler, Direction> capability = Capabilities.ItemHandler.ENTITY_AUTOMATION;
+        List<Entity> list = worldIn.getEntities((Entity) null, new AABB(x - 0.5D, y - 0.5D, z - 0.5D, x + 0.5D, y + 0.5D, z + 0.5D), entity -> entity.isAlive() && capability.hasProviders(entity.getType()));
         if (!list.isEmpty()) {
             var entity = list.get(worldIn.random.nextInt(list.size()));
-            var entityCap = entity.getCapability(Capabilities.ItemHandler.ENTITY_AUTOMATION, side);
+            var entityCap = entity.getCapability(capability, side);
             if (entityCap != null)
-                return Optional.of(ImmutablePair.of(entityCap, entity));
+                return new ItemHandlerTarget(entityCap, entity);
         }
 
-        return Optional.empty();
+        return null;
+    }
+
+    /**
+     * An item handler found by the hooks, and the block entity or entity it belongs to.
+     */
+    private record ItemHandlerTarget(IItemHandler itemHandler, @Nullable Object destination) {}
+
+    /**
+     * Cached block item handler that a hopper pulls items from or pushes items into,
+     * stored in the hopper to avoid looking up the capability on every transfer.
+     */
+    @ApiStatus.Internal
+    public static final class CachedItemHandler {
+        private final BlockCapabilityCache<IItemHandler, @Nullable Direction> capabilityCache;
+        private final Direction side;
+        @Nullable
+        private ItemHandlerTarget target;
+        private boolean targetValid;
+
+        private CachedItemHandler(ServerLevel level, BlockPos pos, Direction side, HopperBlockEntity hopper, boolean source) {
+            this.side = side;
+            // Only stay registered as a listener while the hopper still uses this cache, it is dropped once the hopper is rotated
+            this.capabilityCache = BlockCapabilityCache.create(Capabilities.ItemHandler.BLOCK, level, pos, side,
+                    () -> !hopper.isRemoved() && hopper.getCachedItemHandler(source) == this, () -> this.targetValid = false);
+        }
+
+        @Nullable
+        private ItemHandlerTarget getTarget() {
+            // Always query the cache, since that re-enables its invalidation notifications
+            IItemHandler itemHandler = capabilityCache.getCapability();
+            if (!targetValid) {
+                target = itemHandler == null ? null : new ItemHandlerTarget(itemHandler, capabilityCache.level().getBlockEntity(capabilityCache.pos()));
+                targetValid = true;
+            }
+            return target;
+        }
     }
 }
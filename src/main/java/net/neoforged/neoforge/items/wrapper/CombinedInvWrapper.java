@@ -5,8 +5,10 @@
 
 package net.neoforged.neoforge.items.wrapper;
 
+import java.util.function.Predicate;
 import net.minecraft.world.item.ItemStack;
 import net.neoforged.neoforge.items.IItemHandlerModifiable;
+import net.neoforged.neoforge.items.ItemHandlerHelper;
 import org.jetbrains.annotations.NotNull;
 
 // combines multiple IItemHandlerModifiable into one interface
@@ -109,4 +111,49 @@ public class CombinedInvWrapper implements IItemHandlerModifiable {
         int localSlot = getSlotFromIndex(slot, index);
         return handler.isItemValid(localSlot, stack);
     }
+
+    @Override
+    public boolean isEmpty() {
+        for (IItemHandlerModifiable handler : itemHandler) {
+            if (!handler.isEmpty())
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isFull() {
+        for (IItemHandlerModifiable handler : itemHandler) {
+            if (!handler.isFull())
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    @NotNull
+    public ItemStack insertItemAnywhere(@NotNull ItemStack stack, boolean simulate) {
+        for (int i = 0; i < itemHandler.length && !stack.isEmpty(); i++) {
+            stack = itemHandler[i].insertItemAnywhere(stack, simulate);
+        }
+        return stack;
+    }
+
+    @Override
+    @NotNull
+    public ItemStack extractMatchingItem(Predicate<ItemStack> filter, int amount, boolean simulate) {
+        ItemStack extracted = ItemStack.EMPTY;
+        int limit = amount;
+        for (int i = 0; i < itemHandler.length && extracted.getCount() < limit; i++) {
+            if (extracted.isEmpty()) {
+                extracted = itemHandler[i].extractMatchingItem(filter, limit, simulate);
+                if (!extracted.isEmpty())
+                    limit = Math.min(limit, extracted.getMaxStackSize());
+            } else {
+                ItemStack target = extracted;
+                extracted.grow(itemHandler[i].extractMatchingItem(stack -> ItemHandlerHelper.canItemStacksStack(target, stack), limit - extracted.getCount(), simulate).getCount());
+            }
+        }
+        return extracted;
+    }
 }
@@ -5,6 +5,7 @@
 
 package net.neoforged.neoforge.items.wrapper;
 
+import java.util.function.Predicate;
 import net.minecraft.world.Container;
 import net.minecraft.world.item.ItemStack;
 import net.neoforged.neoforge.items.IItemHandlerModifiable;
@@ -161,6 +162,65 @@ public class InvWrapper implements IItemHandlerModifiable {
         return getInv().canPlaceItem(slot, stack);
     }
 
+    @Override
+    public boolean isEmpty() {
+        return getInv().isEmpty();
+    }
+
+    @Override
+    public boolean isFull() {
+        Container inv = getInv();
+        int limit = inv.getMaxStackSize();
+        for (int slot = 0; slot < inv.getContainerSize(); slot++) {
+            ItemStack stackInSlot = inv.getItem(slot);
+            if (stackInSlot.isEmpty() || stackInSlot.getCount() < limit)
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    @NotNull
+    public ItemStack insertItemAnywhere(@NotNull ItemStack stack, boolean simulate) {
+        Container inv = getInv();
+        int size = inv.getContainerSize();
+        for (int slot = 0; slot < size && !stack.isEmpty(); slot++) {
+            // A slot holding another item can never accept the stack, whatever the insertion rules are
+            ItemStack stackInSlot = inv.getItem(slot);
+            if (stackInSlot.isEmpty() || ItemHandlerHelper.canItemStacksStack(stack, stackInSlot))
+                stack = insertItem(slot, stack, simulate);
+        }
+        return stack;
+    }
+
+    @Override
+    @NotNull
+    public ItemStack extractMatchingItem(Predicate<ItemStack> filter, int amount, boolean simulate) {
+        Container inv = getInv();
+        int size = inv.getContainerSize();
+        ItemStack extracted = ItemStack.EMPTY;
+        int limit = amount;
+        for (int slot = 0; slot < size && extracted.getCount() < limit; slot++) {
+            ItemStack stackInSlot = inv.getItem(slot);
+            if (stackInSlot.isEmpty())
+                continue;
+            if (extracted.isEmpty() ? !filter.test(stackInSlot) : !ItemHandlerHelper.canItemStacksStack(extracted, stackInSlot))
+                continue;
+
+            ItemStack extractedFromSlot = extractItem(slot, limit - extracted.getCount(), simulate);
+            if (extractedFromSlot.isEmpty())
+                continue;
+
+            if (extracted.isEmpty()) {
+                extracted = extractedFromSlot;
+                limit = Math.min(limit, extracted.getMaxStackSize());
+            } else {
+                extracted.grow(extractedFromSlot.getCount());
+            }
+        }
+        return extracted;
+    }
+
     public Container getInv() {
         return inv;
     }
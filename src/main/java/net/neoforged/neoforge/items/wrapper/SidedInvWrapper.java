@@ -6,6 +6,7 @@
 package net.neoforged.neoforge.items.wrapper;
 
 import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
 import net.minecraft.core.Direction;
 import net.minecraft.world.WorldlyContainer;
 import net.minecraft.world.item.ItemStack;
@@ -97,6 +98,13 @@ public class SidedInvWrapper implements IItemHandlerModifiable {
         if (slot1 == -1)
             return stack;
 
+        return insertItem(slot, slot1, stack, simulate);
+    }
+
+    /**
+     * Inserts into the wrapper slot {@code slot}, which is the inventory slot {@code slot1}.
+     */
+    private ItemStack insertItem(int slot, int slot1, ItemStack stack, boolean simulate) {
         ItemStack stackInSlot = inv.getItem(slot1);
 
         int m;
@@ -182,6 +190,13 @@ public class SidedInvWrapper implements IItemHandlerModifiable {
         if (slot1 == -1)
             return ItemStack.EMPTY;
 
+        return extractItem(slot1, amount, simulate);
+    }
+
+    /**
+     * Extracts from the inventory slot {@code slot1}.
+     */
+    private ItemStack extractItem(int slot1, int amount, boolean simulate) {
         ItemStack stackInSlot = inv.getItem(slot1);
 
         if (stackInSlot.isEmpty())
@@ -216,4 +231,65 @@ public class SidedInvWrapper implements IItemHandlerModifiable {
         int slot1 = getSlot(inv, slot, side);
         return slot1 == -1 ? false : inv.canPlaceItem(slot1, stack);
     }
+
+    @Override
+    public boolean isEmpty() {
+        for (int slot : inv.getSlotsForFace(side)) {
+            if (!inv.getItem(slot).isEmpty())
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isFull() {
+        int[] slots = inv.getSlotsForFace(side);
+        for (int i = 0; i < slots.length; i++) {
+            ItemStack stackInSlot = inv.getItem(slots[i]);
+            if (stackInSlot.isEmpty() || stackInSlot.getCount() < getSlotLimit(i))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    @NotNull
+    public ItemStack insertItemAnywhere(@NotNull ItemStack stack, boolean simulate) {
+        // Resolve the slots of the face once, instead of once per slot
+        int[] slots = inv.getSlotsForFace(side);
+        for (int i = 0; i < slots.length && !stack.isEmpty(); i++) {
+            stack = insertItem(i, slots[i], stack, simulate);
+        }
+        return stack;
+    }
+
+    @Override
+    @NotNull
+    public ItemStack extractMatchingItem(Predicate<ItemStack> filter, int amount, boolean simulate) {
+        if (amount == 0)
+            return ItemStack.EMPTY;
+
+        int[] slots = inv.getSlotsForFace(side);
+        ItemStack extracted = ItemStack.EMPTY;
+        int limit = amount;
+        for (int i = 0; i < slots.length && extracted.getCount() < limit; i++) {
+            ItemStack stackInSlot = inv.getItem(slots[i]);
+            if (stackInSlot.isEmpty())
+                continue;
+            if (extracted.isEmpty() ? !filter.test(stackInSlot) : !ItemHandlerHelper.canItemStacksStack(extracted, stackInSlot))
+                continue;
+
+            ItemStack extractedFromSlot = extractItem(slots[i], limit - extracted.getCount(), simulate);
+            if (extractedFromSlot.isEmpty())
+                continue;
+
+            if (extracted.isEmpty()) {
+                extracted = extractedFromSlot;
+                limit = Math.min(limit, extracted.getMaxStackSize());
+            } else {
+                extracted.grow(extractedFromSlot.getCount());
+            }
+        }
+        return extracted;
+    }
 }
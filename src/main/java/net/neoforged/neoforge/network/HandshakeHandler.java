@@ -9,6 +9,7 @@ import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.mojang.authlib.GameProfile;
+import io.netty.buffer.Unpooled;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -29,6 +30,7 @@ import java.util.function.IntSupplier;
 import java.util.stream.Collectors;
 import net.minecraft.core.Registry;
 import net.minecraft.network.Connection;
+import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.chat.Component;
 import net.minecraft.network.protocol.handshake.ClientIntentionPacket;
 import net.minecraft.network.protocol.login.ClientboundCustomQueryPacket;
@@ -49,6 +51,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.Marker;
 import org.apache.logging.log4j.MarkerManager;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Instance responsible for handling the overall FML impl handshake.
@@ -77,6 +80,10 @@ import org.apache.logging.log4j.MarkerManager;
  * should contain the index of the server's packet it is replying to. The {@link LoginWrapper} class handles indexing
  * replies correctly automatically.
  *
+ * <p>The registry packets are not gathered with the other payloads: they are inserted right after the mod list once the client
+ * replied to it with the hashes of the registry snapshots it has cached, and the registries the client already knows are skipped.
+ * The payloads following the mod list are held until then, so that they are still sent after the registries.
+ *
  * <p>Once all packets have been dispatched, we wait for all replies to be received. Once all replies are received, the
  * final login phase will commence.
  */
@@ -112,22 +119,41 @@ public class HandshakeHandler {
     private Set<ResourceLocation> registriesToReceive;
     private boolean negotiationStarted = false;
     private final List<Future<Void>> pendingFutures = new ArrayList<>();
+    @Nullable
+    private volatile Map<ResourceLocation, String> clientRegistryHashes;
+    /**
+     * The position of the registry packets in the {@link #messageList}, right after the mod list.
+     */
+    private int registryPacketPosition = -1;
+    private boolean registryPacketsQueued = true;
 
     private HandshakeHandler(Connection networkManager, LoginNetworkDirection side) {
         this.direction = side;
         this.manager = networkManager;
         if (networkManager.isMemoryConnection()) {
-            this.messageList = NetworkRegistry.gatherLoginPayloads(this.direction, true);
+            this.messageList = new ArrayList<>(NetworkRegistry.gatherLoginPayloads(this.direction, true));
             LOGGER.debug(FMLHSMARKER, "Starting local connection.");
         } else if (NetworkHooks.getConnectionType(() -> this.manager) == ConnectionType.VANILLA) {
             this.messageList = Collections.emptyList();
             LOGGER.debug(FMLHSMARKER, "Starting new vanilla impl connection.");
         } else {
-            this.messageList = NetworkRegistry.gatherLoginPayloads(this.direction, false);
+            this.messageList = new ArrayList<>(NetworkRegistry.gatherLoginPayloads(this.direction, false));
             LOGGER.debug(FMLHSMARKER, "Starting new modded impl connection. Found {} messages to dispatch.", this.messageList.size());
+            // Local connections never receive registry packets, remote ones wait for the mod list reply if a mod list is sent
+            this.registryPacketPosition = findRegistryPacketPosition(this.messageList);
+            this.registryPacketsQueued = this.registryPacketPosition < 0;
         }
     }
 
+    private static int findRegistryPacketPosition(List<NetworkRegistry.LoginPayload> messageList) {
+        for (int i = 0; i < messageList.size(); i++) {
+            NetworkRegistry.LoginPayload message = messageList.get(i);
+            if (message.getChannelName().equals(NetworkConstants.FML_HANDSHAKE_RESOURCE) && message.getMessageContext().equals(HandshakeMessages.S2CModList.class.getName()))
+                return i + 1;
+        }
+        return -1;
+    }
+
     @FunctionalInterface
     public interface HandshakeConsumer<MSG extends IntSupplier> {
         void accept(HandshakeHandler handler, MSG msg, NetworkEvent.Context context);
@@ -198,15 +224,45 @@ public class HandshakeHandler {
             c.getNetworkManager().disconnect(Component.translatable("fml.menu.multiplayer.missingdatapackregistries", String.join(", ", missingDataPackRegistries)));
             return;
         }
-        NetworkConstants.handshakeChannel.reply(new HandshakeMessages.C2SModListReply(), c);
-
         LOGGER.debug(FMLHSMARKER, "Accepted server connection");
         // Set the modded marker on the channel so we know we got packets
         c.getNetworkManager().channel().attr(NetworkConstants.FML_NETVERSION).set(NetworkConstants.NETVERSION);
 
+        if (c.getNetworkManager().isMemoryConnection() || serverModList.getRegistryHashes().isEmpty()) {
+            replyToServerModList(serverModList, Map.of(), c);
+        } else {
+            // Look up the snapshots of the server in the cache off the network thread, the server waits for the reply before sending the registries.
+            // Reply from the event loop of the connection, which is the thread that handles the following registry packets.
+            RegistrySnapshotCache.loadAll(serverModList.getRegistryHashes()).thenAcceptAsync(cachedSnapshots -> replyToServerModList(serverModList, cachedSnapshots, c), c.getNetworkManager().channel().eventLoop()).exceptionally(throwable -> {
+                LOGGER.error(FMLHSMARKER, "Failed to reply to the server mod list", throwable);
+                c.getNetworkManager().disconnect(Component.literal("Internal error when replying to the server mod list: " + throwable));
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Replies to the mod list with the hashes of the cached registry snapshots, the server won't send these registries.
+     *
+     * @param cachedSnapshots the cached snapshots matching the ones of the server, by registry name
+     */
+    private void replyToServerModList(HandshakeMessages.S2CModList serverModList, Map<ResourceLocation, RegistrySnapshot> cachedSnapshots, NetworkEvent.Context c) {
+        Map<ResourceLocation, String> knownHashes = new HashMap<>();
+        cachedSnapshots.keySet().forEach(registryName -> knownHashes.put(registryName, serverModList.getRegistryHashes().get(registryName)));
+        this.registrySnapshots = Maps.newHashMap(cachedSnapshots);
         this.registriesToReceive = new HashSet<>(serverModList.getRegistries());
-        this.registrySnapshots = Maps.newHashMap();
+        this.registriesToReceive.removeAll(this.registrySnapshots.keySet());
+
+        LOGGER.debug(FMLHSMARKER, "Loaded {} registries from the cache: {}", () -> this.registrySnapshots.size(), () -> this.registrySnapshots.keySet());
         LOGGER.debug("Expecting {} registries: {}", () -> this.registriesToReceive.size(), () -> this.registriesToReceive);
+
+        // The server won't send any registry if all of them were cached, apply them before the server sends the next payloads
+        if (this.registriesToReceive.isEmpty() && !this.registrySnapshots.isEmpty() && !handleRegistryLoading(c)) {
+            LOGGER.error(FMLHSMARKER, "Connection closed, not continuing handshake");
+            return;
+        }
+
+        NetworkConstants.handshakeChannel.reply(new HandshakeMessages.C2SModListReply(knownHashes), c);
     }
 
     void handleModData(HandshakeMessages.S2CModData serverModData, NetworkEvent.Context c) {
@@ -235,6 +291,8 @@ public class HandshakeHandler {
             return;
         }
         LOGGER.debug(FMLHSMARKER, "Accepted client connection mod list");
+        // The registry packets are queued on the next tick
+        this.clientRegistryHashes = clientModList.getRegistries();
     }
 
     void handleModMismatchData(HandshakeMessages.S2CChannelMismatchData modMismatchData, NetworkEvent.Context c) {
@@ -253,6 +311,8 @@ public class HandshakeHandler {
         LOGGER.debug(FMLHSMARKER, "Received registry packet for {}", registryPacket.getRegistryName());
         this.registriesToReceive.remove(registryPacket.getRegistryName());
         this.registrySnapshots.put(registryPacket.getRegistryName(), registryPacket.getSnapshot());
+        if (registryPacket.hasSnapshot() && !contextSupplier.getNetworkManager().isMemoryConnection())
+            RegistrySnapshotCache.store(registryPacket.getSnapshot());
 
         boolean continueHandshake = true;
         if (this.registriesToReceive.isEmpty()) {
@@ -332,7 +392,14 @@ public class HandshakeHandler {
             negotiationStarted = true;
         }
 
-        if (packetPosition < messageList.size()) {
+        Map<ResourceLocation, String> clientRegistryHashes = this.clientRegistryHashes;
+        if (!registryPacketsQueued && clientRegistryHashes != null) {
+            queueRegistryPackets(clientRegistryHashes);
+        }
+
+        // The payloads after the mod list are held until the registry packets are inserted before them
+        boolean waitingForRegistryPackets = !registryPacketsQueued && packetPosition >= registryPacketPosition;
+        if (packetPosition < messageList.size() && !waitingForRegistryPackets) {
             NetworkRegistry.LoginPayload message = messageList.get(packetPosition);
 
             LOGGER.debug(FMLHSMARKER, "Sending ticking packet info '{}' to '{}' sequence {}", message.getMessageContext(), message.getChannelName(), packetPosition);
@@ -358,8 +425,8 @@ public class HandshakeHandler {
             return true;
         });
 
-        // we're done when sentMessages is empty
-        if (sentMessages.isEmpty() && packetPosition >= messageList.size() - 1 && pendingFutures.isEmpty()) {
+        // we're done when sentMessages is empty, and the registries were sent to modded clients
+        if (sentMessages.isEmpty() && packetPosition >= messageList.size() - 1 && pendingFutures.isEmpty() && registryPacketsQueued) {
             // clear ourselves - we're done!
             this.manager.channel().attr(NetworkConstants.FML_HANDSHAKE_HANDLER).set(null);
             LOGGER.debug(FMLHSMARKER, "Handshake complete!");
@@ -368,6 +435,24 @@ public class HandshakeHandler {
         return false;
     }
 
+    /**
+     * Inserts the registry packets right after the mod list in the messages to send, skipping the registries the client has cached.
+     *
+     * @param clientRegistryHashes the hashes of the registry snapshots cached by the client, by registry name
+     */
+    private void queueRegistryPackets(Map<ResourceLocation, String> clientRegistryHashes) {
+        registryPacketsQueued = true;
+        var packets = RegistryManager.generateRegistryPackets(this.manager.isMemoryConnection(), clientRegistryHashes);
+        List<NetworkRegistry.LoginPayload> payloads = new ArrayList<>(packets.size());
+        for (var packet : packets) {
+            FriendlyByteBuf buffer = new FriendlyByteBuf(Unpooled.buffer());
+            NetworkConstants.handshakeChannel.encodeMessage(packet.msg(), buffer);
+            payloads.add(new NetworkRegistry.LoginPayload(buffer, NetworkConstants.FML_HANDSHAKE_RESOURCE, packet.context()));
+        }
+        messageList.addAll(registryPacketPosition, payloads);
+        LOGGER.debug(FMLHSMARKER, "Queued {} registry packets, {} registries are cached by the client", packets.size(), clientRegistryHashes.size());
+    }
+
     /**
      * Helper method to determine if the S2C packet at the given packet position needs a response in form of a packet handled in {@link HandshakeHandler#handleIndexedMessage} for the handshake to progress.
      * 
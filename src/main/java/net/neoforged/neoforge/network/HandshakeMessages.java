@@ -47,19 +47,22 @@ public class HandshakeMessages {
         private Map<ResourceLocation, String> channels;
         private List<ResourceLocation> registries;
         private final List<ResourceKey<? extends Registry<?>>> dataPackRegistries;
+        private final Map<ResourceLocation, String> registryHashes;
 
         public S2CModList() {
             this.mods = ModList.get().getMods().stream().map(IModInfo::getModId).collect(Collectors.toList());
             this.channels = NetworkRegistry.buildChannelVersions();
             this.registries = RegistryManager.getRegistryNamesForSyncToClient();
             this.dataPackRegistries = List.copyOf(DataPackRegistriesHooks.getSyncedCustomRegistries());
+            this.registryHashes = RegistryManager.getRegistryHashesForSyncToClient();
         }
 
-        private S2CModList(List<String> mods, Map<ResourceLocation, String> channels, List<ResourceLocation> registries, List<ResourceKey<? extends Registry<?>>> dataPackRegistries) {
+        private S2CModList(List<String> mods, Map<ResourceLocation, String> channels, List<ResourceLocation> registries, List<ResourceKey<? extends Registry<?>>> dataPackRegistries, Map<ResourceLocation, String> registryHashes) {
             this.mods = mods;
             this.channels = channels;
             this.registries = registries;
             this.dataPackRegistries = dataPackRegistries;
+            this.registryHashes = registryHashes;
         }
 
         public static S2CModList decode(FriendlyByteBuf input) {
@@ -79,7 +82,10 @@ public class HandshakeMessages {
                 registries.add(input.readResourceLocation());
 
             List<ResourceKey<? extends Registry<?>>> dataPackRegistries = input.readCollection(ArrayList::new, buf -> ResourceKey.createRegistryKey(buf.readResourceLocation()));
-            return new S2CModList(mods, channels, registries, dataPackRegistries);
+
+            // Older servers do not send the registry hashes
+            Map<ResourceLocation, String> registryHashes = input.isReadable() ? input.readMap(FriendlyByteBuf::readResourceLocation, buf -> buf.readUtf(0x100)) : Map.of();
+            return new S2CModList(mods, channels, registries, dataPackRegistries, registryHashes);
         }
 
         @Override
@@ -98,6 +104,8 @@ public class HandshakeMessages {
 
             Set<ResourceKey<? extends Registry<?>>> dataPackRegistries = DataPackRegistriesHooks.getSyncedCustomRegistries();
             output.writeCollection(dataPackRegistries, (buf, key) -> buf.writeResourceLocation(key.location()));
+
+            output.writeMap(registryHashes, FriendlyByteBuf::writeResourceLocation, (buf, hash) -> buf.writeUtf(hash, 0x100));
         }
 
         public List<String> getModList() {
@@ -118,6 +126,13 @@ public class HandshakeMessages {
         public List<ResourceKey<? extends Registry<?>>> getCustomDataPackRegistries() {
             return this.dataPackRegistries;
         }
+
+        /**
+         * @return the hashes of the registry snapshots of the server, by registry name. Empty if the server does not send them.
+         */
+        public Map<ResourceLocation, String> getRegistryHashes() {
+            return this.registryHashes;
+        }
     }
 
     /**
@@ -159,9 +174,16 @@ public class HandshakeMessages {
         private Map<ResourceLocation, String> registries;
 
         public C2SModListReply() {
+            this(Maps.newHashMap());
+        }
+
+        /**
+         * @param registries the hashes of the registry snapshots the client has cached, by registry name
+         */
+        public C2SModListReply(Map<ResourceLocation, String> registries) {
             this.mods = ModList.get().getMods().stream().map(IModInfo::getModId).collect(Collectors.toList());
             this.channels = NetworkRegistry.buildChannelVersions();
-            this.registries = Maps.newHashMap(); //TODO: Fill with known hashes, which requires keeping a file cache
+            this.registries = registries;
         }
 
         private C2SModListReply(List<String> mods, Map<ResourceLocation, String> channels, Map<ResourceLocation, String> registries) {
@@ -11,16 +11,22 @@ import java.util.function.Consumer;
 import java.util.function.Supplier;
 import net.minecraft.client.Minecraft;
 import net.minecraft.network.Connection;
+import net.minecraft.network.protocol.BundlerInfo;
 import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientGamePacketListener;
+import net.minecraft.network.protocol.game.ClientboundBundlePacket;
 import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerChunkCache;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.chunk.LevelChunk;
 import net.neoforged.neoforge.network.simple.SimpleChannel;
 import net.neoforged.neoforge.server.ServerLifecycleHooks;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Means to distribute packets in various ways
@@ -33,57 +39,57 @@ public class PacketDistributor<T> {
     /**
      * Send to the player specified in the Supplier
      * <br/>
-     * {@link #with(Supplier)} Player
+     * {@link #withValue(Object)} Player
      */
-    public static final PacketDistributor<ServerPlayer> PLAYER = new PacketDistributor<>(PacketDistributor::playerConsumer, PlayNetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<ServerPlayer> PLAYER = new PacketDistributor<>(PacketDistributor::sendToPlayer, PlayNetworkDirection.PLAY_TO_CLIENT);
     /**
      * Send to everyone in the dimension specified in the Supplier
      * <br/>
-     * {@link #with(Supplier)} DimensionType
+     * {@link #withValue(Object)} DimensionType
      */
-    public static final PacketDistributor<ResourceKey<Level>> DIMENSION = new PacketDistributor<>(PacketDistributor::playerListDimConsumer, PlayNetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<ResourceKey<Level>> DIMENSION = new PacketDistributor<>(PacketDistributor::sendToDimension, PlayNetworkDirection.PLAY_TO_CLIENT);
     /**
      * Send to everyone near the {@link TargetPoint} specified in the Supplier
      * <br/>
-     * {@link #with(Supplier)} TargetPoint
+     * {@link #withValue(Object)} TargetPoint
      */
-    public static final PacketDistributor<TargetPoint> NEAR = new PacketDistributor<>(PacketDistributor::playerListPointConsumer, PlayNetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<TargetPoint> NEAR = new PacketDistributor<>(PacketDistributor::sendToPoint, PlayNetworkDirection.PLAY_TO_CLIENT);
     /**
      * Send to everyone
      * <br/>
      * {@link #noArg()}
      */
-    public static final PacketDistributor<Void> ALL = new PacketDistributor<>(PacketDistributor::playerListAll, PlayNetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<Void> ALL = new PacketDistributor<>(PacketDistributor::sendToAll, PlayNetworkDirection.PLAY_TO_CLIENT);
     /**
      * Send to the server (CLIENT to SERVER)
      * <br/>
      * {@link #noArg()}
      */
-    public static final PacketDistributor<Void> SERVER = new PacketDistributor<>(PacketDistributor::clientToServer, PlayNetworkDirection.PLAY_TO_SERVER);
+    public static final PacketDistributor<Void> SERVER = new PacketDistributor<>(PacketDistributor::sendToServer, PlayNetworkDirection.PLAY_TO_SERVER);
     /**
      * Send to all tracking the Entity in the Supplier
      * <br/>
-     * {@link #with(Supplier)} Entity
+     * {@link #withValue(Object)} Entity
      */
-    public static final PacketDistributor<Entity> TRACKING_ENTITY = new PacketDistributor<>(PacketDistributor::trackingEntity, PlayNetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<Entity> TRACKING_ENTITY = new PacketDistributor<>(PacketDistributor::sendToTrackingEntity, PlayNetworkDirection.PLAY_TO_CLIENT);
     /**
      * Send to all tracking the Entity and Player in the Supplier
      * <br/>
-     * {@link #with(Supplier)} Entity
+     * {@link #withValue(Object)} Entity
      */
-    public static final PacketDistributor<Entity> TRACKING_ENTITY_AND_SELF = new PacketDistributor<>(PacketDistributor::trackingEntityAndSelf, PlayNetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<Entity> TRACKING_ENTITY_AND_SELF = new PacketDistributor<>(PacketDistributor::sendToTrackingEntityAndSelf, PlayNetworkDirection.PLAY_TO_CLIENT);
     /**
      * Send to all tracking the Chunk in the Supplier
      * <br/>
-     * {@link #with(Supplier)} Chunk
+     * {@link #withValue(Object)} Chunk
      */
-    public static final PacketDistributor<LevelChunk> TRACKING_CHUNK = new PacketDistributor<>(PacketDistributor::trackingChunk, PlayNetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<LevelChunk> TRACKING_CHUNK = new PacketDistributor<>(PacketDistributor::sendToTrackingChunk, PlayNetworkDirection.PLAY_TO_CLIENT);
     /**
      * Send to the supplied list of NetworkManager instances in the Supplier
      * <br/>
-     * {@link #with(Supplier)} List of NetworkManager
+     * {@link #withValue(Object)} List of NetworkManager
      */
-    public static final PacketDistributor<List<Connection>> NMLIST = new PacketDistributor<>(PacketDistributor::networkManagerList, PlayNetworkDirection.PLAY_TO_CLIENT);
+    public static final PacketDistributor<List<Connection>> NMLIST = new PacketDistributor<>(PacketDistributor::sendToConnections, PlayNetworkDirection.PLAY_TO_CLIENT);
 
     public static final class TargetPoint {
 
@@ -151,20 +157,58 @@ public class PacketDistributor<T> {
     /**
      * A Distributor curried with a specific value instance, for actual dispatch
      *
+     * <p>Targets do not hold any state besides the distributor and its value,
+     * so they can be kept and reused to send multiple packets.
+     *
      * @see SimpleChannel#send(PacketTarget, Object)
      *
      */
     public static class PacketTarget {
+        @Nullable
         private final Consumer<Packet<?>> packetConsumer;
         private final PacketDistributor<?> distributor;
+        @Nullable
+        private final Object value;
 
         PacketTarget(final Consumer<Packet<?>> packetConsumer, final PacketDistributor<?> distributor) {
             this.packetConsumer = packetConsumer;
             this.distributor = distributor;
+            this.value = null;
+        }
+
+        private <T> PacketTarget(final PacketDistributor<T> distributor, @Nullable final T value) {
+            this.packetConsumer = null;
+            this.distributor = distributor;
+            this.value = value;
         }
 
         public void send(Packet<?> packet) {
-            packetConsumer.accept(packet);
+            if (packetConsumer != null)
+                packetConsumer.accept(packet);
+            else
+                distributor.sendUnchecked(value, packet);
+        }
+
+        /**
+         * Sends multiple packets to this target, resolving the recipients only once per batch.
+         *
+         * <p>Packets sent to clients are grouped in {@linkplain ClientboundBundlePacket bundles},
+         * which are then processed by the client in the same tick.
+         *
+         * @param packets the packets to send, in order
+         */
+        @SuppressWarnings("unchecked")
+        public void sendAll(List<? extends Packet<?>> packets) {
+            if (getDirection() != PlayNetworkDirection.PLAY_TO_CLIENT || packets.size() <= 1) {
+                for (var packet : packets)
+                    send(packet);
+                return;
+            }
+
+            for (int start = 0; start < packets.size(); start += BundlerInfo.BUNDLE_SIZE_LIMIT) {
+                var batch = packets.subList(start, Math.min(packets.size(), start + BundlerInfo.BUNDLE_SIZE_LIMIT));
+                send(new ClientboundBundlePacket((Iterable<Packet<ClientGamePacketListener>>) (Iterable<?>) batch));
+            }
         }
 
         public PlayNetworkDirection getDirection() {
@@ -173,84 +217,132 @@ public class PacketDistributor<T> {
 
     }
 
+    /**
+     * Sends a packet to the recipients designated by a distributor value.
+     *
+     * @param <T> the type of the distributor value
+     */
+    @FunctionalInterface
+    public interface PacketSender<T> {
+        void send(T value, Packet<?> packet);
+    }
+
+    @Nullable
     private final BiFunction<PacketDistributor<T>, Supplier<T>, Consumer<Packet<?>>> functor;
+    @Nullable
+    private final PacketSender<T> sender;
     private final PlayNetworkDirection direction;
+    /**
+     * Shared target for {@link #noArg()}, only used with a {@link #sender}.
+     */
+    @Nullable
+    private final PacketTarget noArgTarget;
 
     public PacketDistributor(BiFunction<PacketDistributor<T>, Supplier<T>, Consumer<Packet<?>>> functor, PlayNetworkDirection direction) {
         this.functor = functor;
+        this.sender = null;
         this.direction = direction;
+        this.noArgTarget = null;
+    }
+
+    /**
+     * Creates a distributor that sends packets directly to the recipients designated by its value,
+     * without allocating intermediate suppliers or consumers.
+     */
+    public PacketDistributor(PacketSender<T> sender, PlayNetworkDirection direction) {
+        this.functor = null;
+        this.sender = sender;
+        this.direction = direction;
+        this.noArgTarget = new PacketTarget(this, null);
     }
 
     /**
      * Apply the supplied value to the specific distributor to generate an instance for sending packets to.
-     * 
+     * The supplier is queried every time a packet is sent.
+     *
      * @param input The input to apply
      * @return A curried instance
      */
     public PacketTarget with(Supplier<T> input) {
+        if (sender != null)
+            return new PacketTarget(packet -> sender.send(input.get(), packet), this);
         return new PacketTarget(functor.apply(this, input), this);
     }
 
+    /**
+     * Apply the value to the specific distributor to generate an instance for sending packets to.
+     * Prefer this over {@link #with(Supplier)} when the value is already known.
+     *
+     * @param input The input to apply
+     * @return A curried instance
+     */
+    public PacketTarget withValue(T input) {
+        if (sender != null)
+            return new PacketTarget(this, input);
+        return new PacketTarget(functor.apply(this, () -> input), this);
+    }
+
     /**
      * Apply a no argument value to a distributor to generate an instance for sending packets to.
      *
      * @see #ALL
      * @see #SERVER
-     * @return A curried instance
+     * @return A curried instance, which is shared for the built-in distributors
      */
     public PacketTarget noArg() {
+        if (noArgTarget != null)
+            return noArgTarget;
         return new PacketTarget(functor.apply(this, () -> null), this);
     }
 
-    private Consumer<Packet<?>> playerConsumer(final Supplier<ServerPlayer> entityPlayerMPSupplier) {
-        return p -> entityPlayerMPSupplier.get().connection.connection.send(p);
+    @SuppressWarnings("unchecked")
+    private void sendUnchecked(@Nullable Object value, Packet<?> packet) {
+        sender.send((T) value, packet);
+    }
+
+    private static void sendToPlayer(final ServerPlayer player, final Packet<?> packet) {
+        player.connection.connection.send(packet);
     }
 
-    private Consumer<Packet<?>> playerListDimConsumer(final Supplier<ResourceKey<Level>> dimensionTypeSupplier) {
-        return p -> getServer().getPlayerList().broadcastAll(p, dimensionTypeSupplier.get());
+    private static void sendToDimension(final ResourceKey<Level> dimension, final Packet<?> packet) {
+        getServer().getPlayerList().broadcastAll(packet, dimension);
     }
 
-    private Consumer<Packet<?>> playerListAll(final Supplier<Void> voidSupplier) {
-        return p -> getServer().getPlayerList().broadcastAll(p);
+    private static void sendToAll(final Void unused, final Packet<?> packet) {
+        getServer().getPlayerList().broadcastAll(packet);
     }
 
-    private Consumer<Packet<?>> clientToServer(final Supplier<Void> voidSupplier) {
-        return p -> Minecraft.getInstance().getConnection().send(p);
+    private static void sendToServer(final Void unused, final Packet<?> packet) {
+        Minecraft.getInstance().getConnection().send(packet);
     }
 
-    private Consumer<Packet<?>> playerListPointConsumer(final Supplier<TargetPoint> targetPointSupplier) {
-        return p -> {
-            final TargetPoint tp = targetPointSupplier.get();
-            getServer().getPlayerList().broadcast(tp.excluded, tp.x, tp.y, tp.z, tp.r2, tp.dim, p);
-        };
+    private static void sendToPoint(final TargetPoint tp, final Packet<?> packet) {
+        getServer().getPlayerList().broadcast(tp.excluded, tp.x, tp.y, tp.z, tp.r2, tp.dim, packet);
     }
 
-    private Consumer<Packet<?>> trackingEntity(final Supplier<Entity> entitySupplier) {
-        return p -> {
-            final Entity entity = entitySupplier.get();
-            ((ServerChunkCache) entity.getCommandSenderWorld().getChunkSource()).broadcast(entity, p);
-        };
+    private static void sendToTrackingEntity(final Entity entity, final Packet<?> packet) {
+        ((ServerChunkCache) entity.getCommandSenderWorld().getChunkSource()).broadcast(entity, packet);
     }
 
-    private Consumer<Packet<?>> trackingEntityAndSelf(final Supplier<Entity> entitySupplier) {
-        return p -> {
-            final Entity entity = entitySupplier.get();
-            ((ServerChunkCache) entity.getCommandSenderWorld().getChunkSource()).broadcastAndSend(entity, p);
-        };
+    private static void sendToTrackingEntityAndSelf(final Entity entity, final Packet<?> packet) {
+        ((ServerChunkCache) entity.getCommandSenderWorld().getChunkSource()).broadcastAndSend(entity, packet);
     }
 
-    private Consumer<Packet<?>> trackingChunk(final Supplier<LevelChunk> chunkPosSupplier) {
-        return p -> {
-            final LevelChunk chunk = chunkPosSupplier.get();
-            ((ServerChunkCache) chunk.getLevel().getChunkSource()).chunkMap.getPlayers(chunk.getPos(), false).forEach(e -> e.connection.send(p));
-        };
+    private static void sendToTrackingChunk(final LevelChunk chunk, final Packet<?> packet) {
+        // Same check as ChunkMap#getPlayers(ChunkPos, false), without building a list of players
+        final ChunkPos pos = chunk.getPos();
+        for (ServerPlayer player : ((ServerLevel) chunk.getLevel()).players()) {
+            if (player.getChunkTrackingView().contains(pos.x, pos.z) && !player.connection.chunkSender.isPending(pos.toLong()))
+                player.connection.send(packet);
+        }
     }
 
-    private Consumer<Packet<?>> networkManagerList(final Supplier<List<Connection>> nmListSupplier) {
-        return p -> nmListSupplier.get().forEach(nm -> nm.send(p));
+    private static void sendToConnections(final List<Connection> connections, final Packet<?> packet) {
+        for (Connection connection : connections)
+            connection.send(packet);
     }
 
-    private MinecraftServer getServer() {
+    private static MinecraftServer getServer() {
         return ServerLifecycleHooks.getCurrentServer();
     }
 }
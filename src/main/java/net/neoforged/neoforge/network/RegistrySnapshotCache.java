@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.neoforge.network;
+
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import net.minecraft.Util;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.resources.ResourceLocation;
+import net.neoforged.fml.loading.FMLPaths;
+import net.neoforged.neoforge.registries.RegistrySnapshot;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Client-side cache of the registry snapshots received from servers, stored on disk by {@linkplain RegistrySnapshot#getHash() hash}.
+ * <p>
+ * The hashes of the cached snapshots matching the ones of the server are reported in {@link HandshakeMessages.C2SModListReply},
+ * and the server does not send the {@link HandshakeMessages.S2CRegistry} of these registries.
+ * Only the most recently used snapshots are kept.
+ */
+class RegistrySnapshotCache {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final String EXTENSION = ".bin";
+    private static final int MAX_ENTRIES = 512;
+
+    private static Path getDirectory() {
+        return FMLPaths.GAMEDIR.get().resolve(".cache").resolve("neoforge").resolve("registries");
+    }
+
+    /**
+     * Loads the cached snapshots with the given hashes on the IO pool, so that the network thread does not wait for the disk.
+     *
+     * @param hashes the hashes of the snapshots to load, by registry name
+     * @return a future of the snapshots that are cached, by registry name
+     */
+    static CompletableFuture<Map<ResourceLocation, RegistrySnapshot>> loadAll(Map<ResourceLocation, String> hashes) {
+        return CompletableFuture.supplyAsync(() -> {
+            Map<ResourceLocation, RegistrySnapshot> snapshots = new HashMap<>();
+            hashes.forEach((registryName, hash) -> {
+                RegistrySnapshot snapshot = load(hash);
+                if (snapshot != null)
+                    snapshots.put(registryName, snapshot);
+            });
+            return snapshots;
+        }, Util.ioPool());
+    }
+
+    /**
+     * {@return the cached snapshot with the given hash, or {@code null} if it is not cached or could not be read}
+     */
+    @Nullable
+    private static RegistrySnapshot load(String hash) {
+        // The hash comes from the server, make sure it is one before using it as a file name
+        if (!HASH_PATTERN.matcher(hash).matches())
+            return null;
+
+        Path file = getDirectory().resolve(hash + EXTENSION);
+        if (!Files.isRegularFile(file))
+            return null;
+
+        try {
+            RegistrySnapshot snapshot = RegistrySnapshot.read(new FriendlyByteBuf(Unpooled.wrappedBuffer(Files.readAllBytes(file))));
+            if (!snapshot.getHash().equals(hash)) {
+                LOGGER.warn(HandshakeHandler.FMLHSMARKER, "Cached registry snapshot {} does not match its hash, discarding it", file);
+                Files.deleteIfExists(file);
+                return null;
+            }
+
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return snapshot;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn(HandshakeHandler.FMLHSMARKER, "Failed to read cached registry snapshot {}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the snapshot in the cache, the file is written asynchronously.
+     */
+    static void store(RegistrySnapshot snapshot) {
+        String hash = snapshot.getHash();
+        byte[] data = ByteBufUtil.getBytes(snapshot.getPacketData());
+        Util.ioPool().execute(() -> {
+            Path directory = getDirectory();
+            Path file = directory.resolve(hash + EXTENSION);
+            try {
+                if (Files.isRegularFile(file)) {
+                    Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+                    return;
+                }
+
+                Files.createDirectories(directory);
+                Path temp = Files.createTempFile(directory, hash, ".tmp");
+                Files.write(temp, data);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                prune(directory);
+            } catch (IOException e) {
+                LOGGER.warn(HandshakeHandler.FMLHSMARKER, "Failed to cache registry snapshot {}", file, e);
+            }
+        });
+    }
+
+    private static synchronized void prune(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(path -> path.getFileName().toString().endsWith(EXTENSION)).toList();
+        }
+        if (files.size() <= MAX_ENTRIES)
+            return;
+
+        List<Path> oldestFirst = files.stream().sorted(Comparator.comparing(RegistrySnapshotCache::getLastModifiedTime)).toList();
+        for (Path file : oldestFirst.subList(0, files.size() - MAX_ENTRIES))
+            Files.deleteIfExists(file);
+    }
+
+    private static FileTime getLastModifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
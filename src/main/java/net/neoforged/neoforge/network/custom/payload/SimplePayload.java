@@ -31,10 +31,14 @@ public record SimplePayload(FriendlyByteBuf payload, ResourceLocation id, int pa
         return new SimplePayload(innerBuf, id, innerBuf.readVarInt());
     }
 
+    /**
+     * Writes the payload without modifying its reader index,
+     * such that the same payload can be written to multiple connections, for example when broadcasting.
+     */
     @Override
     public void write(FriendlyByteBuf buf) {
         buf.writeVarInt(packetIndex);
-        buf.writeBytes(payload.slice());
+        buf.writeBytes(payload, payload.readerIndex(), payload.readableBytes());
     }
 
     @Override
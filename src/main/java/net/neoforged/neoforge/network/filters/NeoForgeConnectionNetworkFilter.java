@@ -7,6 +7,7 @@ package net.neoforged.neoforge.network.filters;
 
 import com.google.common.collect.ImmutableMap;
 import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
 import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
@@ -18,6 +19,7 @@ import net.minecraft.network.protocol.common.ClientboundUpdateTagsPacket;
 import net.minecraft.network.protocol.game.ClientboundLoginPacket;
 import net.minecraft.network.protocol.game.ClientboundUpdateAdvancementsPacket;
 import net.minecraft.network.protocol.game.ClientboundUpdateRecipesPacket;
+import net.neoforged.neoforge.network.simple.ChannelMetrics;
 import org.jetbrains.annotations.Nullable;
 
 /**
@@ -44,6 +46,14 @@ public class NeoForgeConnectionNetworkFilter extends VanillaPacketFilter {
         return builder.build();
     }
 
+    @Override
+    protected void encode(ChannelHandlerContext ctx, Packet<?> msg, List<Object> out) {
+        super.encode(ctx, msg, out);
+        // This is the last step before the packets are encoded to the wire, count the channel traffic here
+        for (Object packet : out)
+            ChannelMetrics.onPacketSent((Packet<?>) packet);
+    }
+
     @Override
     protected boolean isNecessary(Connection manager) {
         // not needed on local connections, because packets are not encoded to bytes there
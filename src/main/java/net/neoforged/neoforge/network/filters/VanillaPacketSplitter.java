@@ -6,9 +6,13 @@
 package net.neoforged.neoforge.network.filters;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.Unpooled;
+import io.netty.util.AttributeKey;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 import net.minecraft.network.CompressionDecoder;
 import net.minecraft.network.Connection;
@@ -19,6 +23,10 @@ import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.PacketFlow;
 import net.minecraft.network.protocol.common.ClientboundCustomPayloadPacket;
 import net.minecraft.resources.ResourceLocation;
+import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.OnDatapackSyncEvent;
+import net.neoforged.neoforge.event.server.ServerStartingEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
 import net.neoforged.neoforge.network.ConnectionData;
 import net.neoforged.neoforge.network.NetworkEvent;
 import net.neoforged.neoforge.network.NetworkHooks;
@@ -53,8 +61,23 @@ public class VanillaPacketSplitter {
         Predicate<String> versionCheck = NetworkRegistry.acceptMissingOr(VERSION);
         EventNetworkChannel channel = NetworkRegistry.newEventChannel(CHANNEL, () -> VERSION, versionCheck, versionCheck);
         channel.addListener(VanillaPacketSplitter::onClientPacket);
+        NeoForge.EVENT_BUS.addListener(VanillaPacketSplitter::onDatapackSync);
+        // Packets are only measured by the server, forget the sizes of the previous world when one starts or stops
+        NeoForge.EVENT_BUS.addListener((ServerStartingEvent event) -> MAX_OBSERVED_SIZES.clear());
+        NeoForge.EVENT_BUS.addListener((ServerStoppedEvent event) -> MAX_OBSERVED_SIZES.clear());
     }
 
+    /**
+     * Largest serialized size observed for each packet type since the server started or datapacks were last reloaded.
+     * Packets are only assumed to be small enough if all the previous packets of the same type were much smaller than the limit.
+     */
+    private static final Map<Class<?>, Integer> MAX_OBSERVED_SIZES = new ConcurrentHashMap<>();
+    /**
+     * Packet types whose previous packets were at most this size are not measured before being sent.
+     * The large margin accounts for size growth between two reloads, for example advancement progress.
+     */
+    private static final int SMALL_ENOUGH_THRESHOLD = PROTOCOL_MAX / 4;
+
     /**
      * Append the given packet to the given list. If the packet needs to be split, multiple packets will be appened.
      * Otherwise only the packet itself.
@@ -63,46 +86,52 @@ public class VanillaPacketSplitter {
         if (heuristicIsDefinitelySmallEnough(packet)) {
             out.add(packet);
         } else {
-            FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
-            packet.write(buf);
-            if (buf.readableBytes() <= PROTOCOL_MAX) {
-                buf.release();
-                out.add(packet);
-            } else {
+            // Use a pooled buffer since it is released right away in the common case
+            FriendlyByteBuf buf = new FriendlyByteBuf(ByteBufAllocator.DEFAULT.buffer());
+            try {
+                packet.write(buf);
+                MAX_OBSERVED_SIZES.merge(packet.getClass(), buf.readableBytes(), Math::max);
                 int parts = (int) Math.ceil(((double) buf.readableBytes()) / PART_SIZE);
-                if (parts == 1) {
-                    buf.release();
+                if (buf.readableBytes() <= PROTOCOL_MAX || parts == 1) {
                     out.add(packet);
                 } else {
                     for (int part = 0; part < parts; part++) {
-                        ByteBuf partPrefix;
+                        int partSize = Math.min(PART_SIZE, buf.readableBytes());
+                        // Copy the part out of the pooled buffer: the payload is not released after it is sent
+                        ByteBuf partBuf = Unpooled.buffer(5 + partSize);
                         if (part == 0) {
-                            partPrefix = Unpooled.buffer(5);
-                            partPrefix.writeByte(STATE_FIRST);
-                            new FriendlyByteBuf(partPrefix).writeVarInt(protocol.codec(direction).packetId(packet));
+                            partBuf.writeByte(STATE_FIRST);
+                            new FriendlyByteBuf(partBuf).writeVarInt(protocol.codec(direction).packetId(packet));
                         } else {
-                            partPrefix = Unpooled.buffer(1);
-                            partPrefix.writeByte(part == parts - 1 ? STATE_LAST : 0);
+                            partBuf.writeByte(part == parts - 1 ? STATE_LAST : 0);
                         }
-                        int partSize = Math.min(PART_SIZE, buf.readableBytes());
-                        ByteBuf partBuf = Unpooled.wrappedBuffer(
-                                partPrefix,
-                                buf.retainedSlice(buf.readerIndex(), partSize));
-                        buf.skipBytes(partSize);
+                        partBuf.writeBytes(buf, partSize);
                         out.add(new ClientboundCustomPayloadPacket(SimplePayload.outbound(new FriendlyByteBuf(partBuf), protocol.codec(direction).packetId(packet), CHANNEL)));
                     }
-                    // we retained all the slices, so we do not need this one anymore
-                    buf.release();
                 }
+            } finally {
+                buf.release();
             }
         }
     }
 
     private static boolean heuristicIsDefinitelySmallEnough(Packet<?> packet) {
-        return false;
+        Integer maxObservedSize = MAX_OBSERVED_SIZES.get(packet.getClass());
+        return maxObservedSize != null && maxObservedSize <= SMALL_ENOUGH_THRESHOLD;
+    }
+
+    /**
+     * Forget the observed packet sizes when datapacks are reloaded, since tags, recipes and advancements might have changed.
+     */
+    private static void onDatapackSync(OnDatapackSyncEvent event) {
+        if (event.getPlayer() == null)
+            MAX_OBSERVED_SIZES.clear();
     }
 
-    private static final List<FriendlyByteBuf> receivedBuffers = new ArrayList<>();
+    /**
+     * Parts of the split packet that is currently being received, stored per connection.
+     */
+    private static final AttributeKey<List<FriendlyByteBuf>> RECEIVED_BUFFERS = AttributeKey.valueOf("neoforge:split_buffers");
 
     private static void onClientPacket(NetworkEvent.ServerCustomPayloadEvent event) {
         NetworkEvent.Context ctx = event.getSource();
@@ -112,30 +141,50 @@ public class VanillaPacketSplitter {
         ctx.setPacketHandled(true);
 
         FriendlyByteBuf buf = event.getPayload();
+        var receivedBuffersAttr = ctx.getNetworkManager().channel().attr(RECEIVED_BUFFERS);
+        List<FriendlyByteBuf> receivedBuffers = receivedBuffersAttr.get();
+        if (receivedBuffers == null) {
+            List<FriendlyByteBuf> buffers = new ArrayList<>();
+            receivedBuffersAttr.set(buffers);
+            // Release the parts of a packet that was still being received when the connection closes.
+            // The listener runs on the event loop of the channel, like this handler, so the list is never accessed concurrently.
+            ctx.getNetworkManager().channel().closeFuture().addListener(future -> releaseAll(buffers));
+            receivedBuffers = buffers;
+        }
 
         byte state = buf.readByte();
         if (state == STATE_FIRST) {
             if (!receivedBuffers.isEmpty()) {
                 LOGGER.warn("neoforge:split received out of order - inbound buffer not empty when receiving first");
-                receivedBuffers.clear();
+                releaseAll(receivedBuffers);
             }
         }
         buf.retain(); // retain the buffer, it is released after this handler otherwise
         receivedBuffers.add(buf);
         if (state == STATE_LAST) {
             FriendlyByteBuf full = new FriendlyByteBuf(Unpooled.wrappedBuffer(receivedBuffers.toArray(new FriendlyByteBuf[0])));
-            int packetId = full.readVarInt();
-            Packet<?> packet = protocol.codec(direction).createPacket(packetId, full);
-            if (packet == null) {
-                LOGGER.error("Received invalid packet ID {} in neoforge:split", packetId);
-            } else {
-                receivedBuffers.clear();
+            // The composite buffer now owns the parts
+            receivedBuffers.clear();
+            try {
+                int packetId = full.readVarInt();
+                Packet<?> packet = protocol.codec(direction).createPacket(packetId, full);
+                if (packet == null) {
+                    LOGGER.error("Received invalid packet ID {} in neoforge:split", packetId);
+                } else {
+                    ctx.enqueueWork(() -> genericsFtw(packet, event.getSource().getNetworkManager().getPacketListener()));
+                }
+            } finally {
                 full.release();
-                ctx.enqueueWork(() -> genericsFtw(packet, event.getSource().getNetworkManager().getPacketListener()));
             }
         }
     }
 
+    private static void releaseAll(List<FriendlyByteBuf> buffers) {
+        for (FriendlyByteBuf buffer : buffers)
+            buffer.release();
+        buffers.clear();
+    }
+
     @SuppressWarnings("unchecked")
     private static <T extends PacketListener> void genericsFtw(Packet<T> pkt, Object listener) {
         pkt.handle((T) listener);
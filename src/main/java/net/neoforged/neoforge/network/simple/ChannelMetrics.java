@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.neoforge.network.simple;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.common.ClientboundCustomPayloadPacket;
+import net.minecraft.network.protocol.common.ServerboundCustomPayloadPacket;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.network.protocol.game.ClientboundBundlePacket;
+import net.minecraft.resources.ResourceLocation;
+import net.neoforged.neoforge.network.custom.payload.SimplePayload;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * Traffic counters for a channel.
+ *
+ * <p>Messages are encoded once per send, and the resulting payload is shared by all the recipients.
+ * Comparing {@link #getEncodedBytes()} with {@link #getSentBytes()} thus shows how much a channel benefits from broadcasting.
+ * Only the payloads actually written to remote connections are counted as sent, local connections do not encode packets.
+ */
+public final class ChannelMetrics {
+    private static final Map<ResourceLocation, ChannelMetrics> METRICS = new ConcurrentHashMap<>();
+
+    /**
+     * {@return the metrics of the given channel}
+     */
+    public static ChannelMetrics get(ResourceLocation channelName) {
+        return METRICS.computeIfAbsent(channelName, n -> new ChannelMetrics());
+    }
+
+    private final LongAdder encodedMessages = new LongAdder();
+    private final LongAdder encodedBytes = new LongAdder();
+    private final LongAdder sentBytes = new LongAdder();
+
+    private ChannelMetrics() {}
+
+    void onEncoded(int bytes) {
+        encodedMessages.increment();
+        encodedBytes.add(bytes);
+    }
+
+    void onSent(int bytes) {
+        sentBytes.add(bytes);
+    }
+
+    /**
+     * Records the channel payloads of a packet that is being written to a remote connection.
+     */
+    @ApiStatus.Internal
+    public static void onPacketSent(Packet<?> packet) {
+        if (packet instanceof ClientboundBundlePacket bundle) {
+            for (Packet<?> subPacket : bundle.subPackets())
+                onPacketSent(subPacket);
+            return;
+        }
+
+        CustomPacketPayload payload = null;
+        if (packet instanceof ClientboundCustomPayloadPacket clientbound)
+            payload = clientbound.payload();
+        else if (packet instanceof ServerboundCustomPayloadPacket serverbound)
+            payload = serverbound.payload();
+
+        if (payload instanceof SimplePayload simplePayload)
+            get(simplePayload.id()).onSent(simplePayload.payload().readableBytes());
+    }
+
+    /**
+     * {@return the number of messages that were encoded}
+     */
+    public long getEncodedMessages() {
+        return encodedMessages.sum();
+    }
+
+    /**
+     * {@return the number of bytes produced by message encoders}
+     */
+    public long getEncodedBytes() {
+        return encodedBytes.sum();
+    }
+
+    /**
+     * {@return the number of payload bytes written to remote connections, summed over all recipients}
+     */
+    public long getSentBytes() {
+        return sentBytes.sum();
+    }
+}
@@ -5,8 +5,7 @@
 
 package net.neoforged.neoforge.network.simple;
 
-import it.unimi.dsi.fastutil.objects.Object2ObjectArrayMap;
-import it.unimi.dsi.fastutil.shorts.Short2ObjectArrayMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
 import java.util.Objects;
 import java.util.Optional;
 import net.minecraft.network.FriendlyByteBuf;
@@ -23,8 +22,14 @@ import org.apache.logging.log4j.MarkerManager;
 public class IndexedMessageCodec {
     private static final Logger LOGGER = LogManager.getLogger();
     private static final Marker SIMPLENET = MarkerManager.getMarker("SIMPLENET");
-    private final Short2ObjectArrayMap<MessageHandler<?>> indicies = new Short2ObjectArrayMap<>();
-    private final Object2ObjectArrayMap<Class<?>, MessageHandler<?>> types = new Object2ObjectArrayMap<>();
+    /**
+     * Message handlers by discriminator byte.
+     */
+    private final MessageHandler<?>[] indicies = new MessageHandler<?>[256];
+    /**
+     * Message handlers by message class. Hashed by identity since channels can have many message types.
+     */
+    private final Reference2ObjectOpenHashMap<Class<?>, MessageHandler<?>> types = new Reference2ObjectOpenHashMap<>();
     private final NetworkInstance networkInstance;
 
     public IndexedMessageCodec() {
@@ -42,7 +47,7 @@ public class IndexedMessageCodec {
 
     @SuppressWarnings("unchecked")
     <MSG> MessageHandler<MSG> findIndex(final short i) {
-        return (MessageHandler<MSG>) indicies.get(i);
+        return i >= 0 && i < indicies.length ? (MessageHandler<MSG>) indicies[i] : null;
     }
 
     @SuppressWarnings("OptionalUsedAsFieldOrParameterType")
@@ -65,7 +70,7 @@ public class IndexedMessageCodec {
             this.networkDirection = networkDirection;
             this.loginIndexGetter = Optional.empty();
             this.loginIndexSetter = Optional.empty();
-            indicies.put((short) (index & 0xff), this);
+            indicies[index & 0xff] = this;
             types.put(messageType, this);
         }
 
@@ -132,7 +137,7 @@ public class IndexedMessageCodec {
             return;
         }
         short discriminator = payload.readUnsignedByte();
-        final MessageHandler<?> messageHandler = indicies.get(discriminator);
+        final MessageHandler<?> messageHandler = indicies[discriminator];
         if (messageHandler == null) {
             LOGGER.error(SIMPLENET, "Received invalid discriminator byte {} on channel {}", discriminator, Optional.ofNullable(networkInstance).map(NetworkInstance::getChannelName).map(Objects::toString).orElse("MISSING CHANNEL"));
             return;
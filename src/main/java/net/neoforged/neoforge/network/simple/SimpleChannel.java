@@ -35,6 +35,7 @@ import net.neoforged.neoforge.network.simple.MessageFunctions.MessageEncoder;
 public class SimpleChannel {
     private final NetworkInstance instance;
     private final IndexedMessageCodec indexedCodec;
+    private final ChannelMetrics metrics;
     private final Optional<Consumer<NetworkEvent.ChannelRegistrationChangeEvent>> registryChangeConsumer;
 
     private record LoginPacketEntry(LoginPacketGenerator<?> generator, boolean needsResponse) {}
@@ -48,6 +49,7 @@ public class SimpleChannel {
     private SimpleChannel(NetworkInstance instance, Optional<Consumer<NetworkEvent.ChannelRegistrationChangeEvent>> registryChangeNotify) {
         this.instance = instance;
         this.indexedCodec = new IndexedMessageCodec(instance);
+        this.metrics = ChannelMetrics.get(instance.getChannelName());
         instance.addListener(this::networkEventListener);
         instance.addGatherListener(this::networkLoginGather);
         this.registryChangeConsumer = registryChangeNotify;
@@ -88,9 +90,17 @@ public class SimpleChannel {
     private <MSG> INetworkDirection.PacketData toBuffer(MSG msg) {
         final FriendlyByteBuf bufIn = new FriendlyByteBuf(Unpooled.buffer());
         int index = encodeMessage(msg, bufIn);
+        metrics.onEncoded(bufIn.readableBytes());
         return new INetworkDirection.PacketData(bufIn, index);
     }
 
+    /**
+     * {@return the traffic metrics of this channel}
+     */
+    public ChannelMetrics getMetrics() {
+        return metrics;
+    }
+
     public <MSG> void sendToServer(MSG message) {
         sendTo(message, Minecraft.getInstance().getConnection().getConnection(), PlayNetworkDirection.PLAY_TO_SERVER);
     }
@@ -102,8 +112,10 @@ public class SimpleChannel {
     /**
      * Send a message to the {@link PacketDistributor.PacketTarget} from a {@link PacketDistributor} instance.
      *
+     * <p>The message is encoded only once, and the encoded payload is shared by all the recipients of the target.
+     *
      * <pre>
-     * channel.send(PacketDistributor.PLAYER.with(() -> player), message)
+     * channel.send(PacketDistributor.PLAYER.withValue(player), message)
      * </pre>
      *
      * @param target  The curried target from a PacketDistributor
@@ -114,6 +126,21 @@ public class SimpleChannel {
         target.send(toVanillaPacket(message, target.getDirection()));
     }
 
+    /**
+     * Send multiple messages to the {@link PacketDistributor.PacketTarget} from a {@link PacketDistributor} instance.
+     * Each message is encoded once, and the recipients are only resolved once for the whole batch.
+     *
+     * @param target   The curried target from a PacketDistributor
+     * @param messages The messages to send, in order
+     * @see PacketDistributor.PacketTarget#sendAll(List)
+     */
+    public void sendAll(PacketDistributor.PacketTarget target, List<?> messages) {
+        List<Packet<?>> packets = new ArrayList<>(messages.size());
+        for (Object message : messages)
+            packets.add(toVanillaPacket(message, target.getDirection()));
+        target.sendAll(packets);
+    }
+
     public <MSG> Packet<?> toVanillaPacket(MSG message, PlayNetworkDirection direction) {
         return direction.buildPacket(toBuffer(message), instance.getChannelName());
     }
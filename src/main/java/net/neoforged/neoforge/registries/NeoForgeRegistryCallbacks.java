@@ -23,6 +23,8 @@ import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockBehaviour;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.levelgen.DebugLevelSource;
+import net.neoforged.neoforge.attachment.AttachmentInternals;
+import net.neoforged.neoforge.attachment.AttachmentType;
 import net.neoforged.neoforge.registries.callback.AddCallback;
 import net.neoforged.neoforge.registries.callback.BakeCallback;
 import net.neoforged.neoforge.registries.callback.ClearCallback;
@@ -123,4 +125,13 @@ class NeoForgeRegistryCallbacks {
                 BLOCKSTATE_TO_POI_TYPE_MAP.clear();
         }
     }
+
+    static class AttachmentTypeCallbacks implements BakeCallback<AttachmentType<?>> {
+        static final AttachmentTypeCallbacks INSTANCE = new AttachmentTypeCallbacks();
+
+        @Override
+        public void onBake(Registry<AttachmentType<?>> registry) {
+            AttachmentInternals.assignIndices(registry);
+        }
+    }
 }
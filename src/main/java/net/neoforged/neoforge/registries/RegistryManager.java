@@ -33,6 +33,10 @@ public class RegistryManager {
     private static Set<ResourceLocation> vanillaRegistryKeys = Set.of();
     private static Map<ResourceLocation, RegistrySnapshot> vanillaSnapshot = null;
     private static Map<ResourceLocation, RegistrySnapshot> frozenSnapshot = null;
+    /**
+     * The snapshot synced to clients, shared by all logins until the registries change so that it is only taken and hashed once.
+     */
+    private static Map<ResourceLocation, RegistrySnapshot> syncToClientSnapshot = null;
 
     /**
      * Called by {@link RegistryBuilder} to make sure that modders don't forget to register their registries.
@@ -76,6 +80,18 @@ public class RegistryManager {
 
     static void takeFrozenSnapshot() {
         frozenSnapshot = takeSnapshot(SnapshotType.SYNC_TO_CLIENT);
+        invalidateSyncToClientSnapshot();
+    }
+
+    private static synchronized Map<ResourceLocation, RegistrySnapshot> getSyncToClientSnapshot() {
+        if (syncToClientSnapshot == null)
+            syncToClientSnapshot = Map.copyOf(takeSnapshot(SnapshotType.SYNC_TO_CLIENT));
+
+        return syncToClientSnapshot;
+    }
+
+    private static synchronized void invalidateSyncToClientSnapshot() {
+        syncToClientSnapshot = null;
     }
 
     public static void revertToVanilla() {
@@ -111,6 +127,7 @@ public class RegistryManager {
             MappedRegistry<?> registry = (MappedRegistry<?>) BuiltInRegistries.REGISTRY.get(registryName);
             applySnapshot(registry, snapshot, missingEntries);
         });
+        invalidateSyncToClientSnapshot();
 
         if (missingRegistries != null && !missingRegistries.isEmpty() && LOGGER.isWarnEnabled(REGISTRIES)) {
             StringBuilder builder = new StringBuilder("NeoForge detected missing/unknown registries.\n\n")
@@ -199,15 +216,32 @@ public class RegistryManager {
         return map;
     }
 
-    public static List<MessageFunctions.LoginPacket<HandshakeMessages.S2CRegistry>> generateRegistryPackets(boolean isLocal) {
+    /**
+     * Generates the packets syncing the registries to a client.
+     *
+     * @param isLocal     whether the client is connected to the integrated server, in which case nothing needs to be synced
+     * @param knownHashes the hashes of the registry snapshots the client has cached, by registry name;
+     *                    registries whose snapshot has the same hash are not sent
+     */
+    public static List<MessageFunctions.LoginPacket<HandshakeMessages.S2CRegistry>> generateRegistryPackets(boolean isLocal, Map<ResourceLocation, String> knownHashes) {
         if (isLocal)
             return List.of();
 
-        return takeSnapshot(SnapshotType.SYNC_TO_CLIENT).entrySet().stream()
+        return getSyncToClientSnapshot().entrySet().stream()
+                .filter(e -> !e.getValue().getHash().equals(knownHashes.get(e.getKey())))
                 .map(e -> new MessageFunctions.LoginPacket<>("Registry " + e.getKey(), new HandshakeMessages.S2CRegistry(e.getKey(), e.getValue())))
                 .toList();
     }
 
+    /**
+     * {@return the hashes of the snapshots of the registries synced to clients, by registry name}
+     */
+    public static Map<ResourceLocation, String> getRegistryHashesForSyncToClient() {
+        Map<ResourceLocation, String> hashes = new HashMap<>();
+        getSyncToClientSnapshot().forEach((name, snapshot) -> hashes.put(name, snapshot.getHash()));
+        return hashes;
+    }
+
     public static List<ResourceLocation> getRegistryNamesForSyncToClient() {
         List<ResourceLocation> list = new ArrayList<>();
 
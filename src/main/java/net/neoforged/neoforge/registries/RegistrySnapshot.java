@@ -5,6 +5,8 @@
 
 package net.neoforged.neoforge.registries;
 
+import com.google.common.hash.Hashing;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import it.unimi.dsi.fastutil.ints.Int2ObjectRBTreeMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectSortedMap;
@@ -32,6 +34,8 @@ public class RegistrySnapshot {
     private final Registry<?> fullBackup;
     @Nullable
     private FriendlyByteBuf binary = null;
+    @Nullable
+    private String hash = null;
 
     /**
      * Creates a blank snapshot to populate.
@@ -102,6 +106,17 @@ public class RegistrySnapshot {
         return new FriendlyByteBuf(this.binary.slice());
     }
 
+    /**
+     * {@return the SHA-256 hash of the {@linkplain #getPacketData() packet data} of this snapshot, as a hex string}
+     * Two snapshots with the same ids and aliases have the same hash.
+     */
+    public synchronized String getHash() {
+        if (this.hash == null)
+            this.hash = Hashing.sha256().hashBytes(ByteBufUtil.getBytes(getPacketData())).toString();
+
+        return this.hash;
+    }
+
     public static RegistrySnapshot read(@Nullable FriendlyByteBuf buf) {
         if (buf == null)
             return new RegistrySnapshot();
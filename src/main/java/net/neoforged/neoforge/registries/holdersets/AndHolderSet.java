@@ -6,9 +6,10 @@
 package net.neoforged.neoforge.registries.holdersets;
 
 import com.mojang.serialization.Codec;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 import net.minecraft.core.Holder;
 import net.minecraft.core.HolderSet;
 import net.minecraft.core.Registry;
@@ -53,15 +54,20 @@ public class AndHolderSet<T> extends CompositeHolderSet<T> {
         if (components.size() < 1) {
             return Set.of();
         }
-        if (components.size() == 1) {
-            return components.get(0).stream().collect(Collectors.toSet());
-        }
 
-        List<HolderSet<T>> remainingComponents = components.subList(1, components.size());
-        return components.get(0)
-                .stream()
-                .filter(holder -> remainingComponents.stream().allMatch(holderset -> holderset.contains(holder)))
-                .collect(Collectors.toSet());
+        HolderSet<T> first = components.get(0);
+        int size = components.size();
+        Set<Holder<T>> set = new ObjectOpenHashSet<>();
+        holders:
+        for (Holder<T> holder : first) {
+            for (int i = 1; i < size; i++) {
+                if (!components.get(i).contains(holder)) {
+                    continue holders;
+                }
+            }
+            set.add(holder);
+        }
+        return Collections.unmodifiableSet(set);
     }
 
     @Override
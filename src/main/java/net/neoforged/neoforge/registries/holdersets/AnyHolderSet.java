@@ -82,7 +82,9 @@ public record AnyHolderSet<T>(HolderLookup.RegistryLookup<T> registryLookup) imp
 
     @Override
     public boolean contains(Holder<T> holder) {
-        return holder.unwrapKey().map(key -> this.registryLookup.listElementIds().anyMatch(key::equals)).orElse(false);
+        // Look the key up directly rather than scanning the whole registry
+        Optional<ResourceKey<T>> key = holder.unwrapKey();
+        return key.isPresent() && this.registryLookup.get(key.get()).isPresent();
     }
 
     @Override
@@ -29,10 +29,11 @@ public abstract class CompositeHolderSet<T> implements ICustomHolderSet<T> {
     private final List<Runnable> owners = new ArrayList<>();
     private final List<HolderSet<T>> components;
 
+    // Volatile since holder sets may be queried from several threads
     @Nullable
-    private Set<Holder<T>> set = null;
+    private volatile Set<Holder<T>> set = null;
     @Nullable
-    private List<Holder<T>> list = null;
+    private volatile List<Holder<T>> list = null;
 
     public CompositeHolderSet(List<HolderSet<T>> components) {
         this.components = components;
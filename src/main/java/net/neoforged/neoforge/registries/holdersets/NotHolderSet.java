@@ -53,7 +53,7 @@ public class NotHolderSet<T> implements ICustomHolderSet<T> {
     private final HolderLookup.RegistryLookup<T> registryLookup;
     private final HolderSet<T> value;
     @Nullable
-    private List<Holder<T>> list = null;
+    private volatile List<Holder<T>> list = null;
 
     public HolderLookup.RegistryLookup<T> registryLookup() {
         return this.registryLookup;
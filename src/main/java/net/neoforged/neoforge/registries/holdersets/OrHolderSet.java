@@ -6,9 +6,10 @@
 package net.neoforged.neoforge.registries.holdersets;
 
 import com.mojang.serialization.Codec;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 import net.minecraft.core.Holder;
 import net.minecraft.core.HolderSet;
 import net.minecraft.core.Registry;
@@ -49,7 +50,13 @@ public class OrHolderSet<T> extends CompositeHolderSet<T> {
 
     @Override
     protected Set<Holder<T>> createSet() {
-        return this.getComponents().stream().flatMap(HolderSet::stream).collect(Collectors.toSet());
+        Set<Holder<T>> set = new ObjectOpenHashSet<>();
+        for (HolderSet<T> component : this.getComponents()) {
+            for (Holder<T> holder : component) {
+                set.add(holder);
+            }
+        }
+        return Collections.unmodifiableSet(set);
     }
 
     @Override
@@ -5,13 +5,21 @@
 
 package net.neoforged.neoforge.server;
 
+import com.mojang.serialization.Codec;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import net.minecraft.Util;
 import net.minecraft.core.Holder;
 import net.minecraft.core.RegistryAccess;
 import net.minecraft.core.registries.Registries;
@@ -22,15 +30,21 @@ import net.minecraft.network.chat.MutableComponent;
 import net.minecraft.network.protocol.handshake.ClientIntent;
 import net.minecraft.network.protocol.handshake.ClientIntentionPacket;
 import net.minecraft.network.protocol.login.ClientboundLoginDisconnectPacket;
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.levelgen.structure.Structure;
 import net.minecraft.world.level.storage.LevelResource;
 import net.neoforged.fml.config.ConfigTracker;
 import net.neoforged.fml.config.ModConfig;
 import net.neoforged.fml.loading.FMLEnvironment;
 import net.neoforged.fml.loading.FMLPaths;
 import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.common.NeoForgeConfig;
 import net.neoforged.neoforge.common.util.LogicalSidedProvider;
 import net.neoforged.neoforge.common.world.BiomeModifier;
+import net.neoforged.neoforge.common.world.ModifiableBiomeInfo;
+import net.neoforged.neoforge.common.world.ModifiableStructureInfo;
 import net.neoforged.neoforge.common.world.StructureModifier;
 import net.neoforged.neoforge.event.server.ServerAboutToStartEvent;
 import net.neoforged.neoforge.event.server.ServerStartedEvent;
@@ -46,6 +60,8 @@ import net.neoforged.neoforge.registries.NeoForgeRegistries;
 import net.neoforged.neoforge.registries.NeoForgeRegistries.Keys;
 import net.neoforged.neoforge.registries.RegistryManager;
 import net.neoforged.neoforge.server.permission.PermissionAPI;
+import net.neoforged.neoforge.server.timings.TickTimeAccumulator;
+import net.neoforged.neoforge.server.timings.TickTimingsEvent;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.Marker;
@@ -88,6 +104,7 @@ public class ServerLifecycleHooks {
         LogicalSidedProvider.setServer(() -> server);
         ConfigTracker.INSTANCE.loadConfigs(ModConfig.Type.SERVER, FMLPaths.CONFIGDIR.get(), getServerConfigPath(server));
         runModifiers(server);
+        TickTimingsEvent.register();
         NeoForge.EVENT_BUS.post(new ServerAboutToStartEvent(server));
     }
 
@@ -128,6 +145,8 @@ public class ServerLifecycleHooks {
             exitLatch = null;
         }
         ConfigTracker.INSTANCE.unloadConfigs(ModConfig.Type.SERVER);
+        TickTimeAccumulator.BLOCK_ENTITIES.reset();
+        TickTimeAccumulator.ENTITIES.reset();
     }
 
     public static MinecraftServer getCurrentServer() {
@@ -184,24 +203,107 @@ public class ServerLifecycleHooks {
 
     private static void runModifiers(final MinecraftServer server) {
         final RegistryAccess registries = server.registryAccess();
+        final boolean parallel = NeoForgeConfig.SERVER.parallelWorldgenModifiers.get();
 
         // The order of holders() is the order modifiers were loaded in.
-        final List<BiomeModifier> biomeModifiers = registries.registryOrThrow(NeoForgeRegistries.Keys.BIOME_MODIFIERS)
+        final List<TimedBiomeModifier> timedBiomeModifiers = registries.registryOrThrow(NeoForgeRegistries.Keys.BIOME_MODIFIERS)
                 .holders()
-                .map(Holder::value)
+                .map(holder -> new TimedBiomeModifier(holder.key(), holder.value(), new LongAdder()))
                 .toList();
-        final List<StructureModifier> structureModifiers = registries.registryOrThrow(Keys.STRUCTURE_MODIFIERS)
+        final List<TimedStructureModifier> timedStructureModifiers = registries.registryOrThrow(Keys.STRUCTURE_MODIFIERS)
                 .holders()
-                .map(Holder::value)
+                .map(holder -> new TimedStructureModifier(holder.key(), holder.value(), new LongAdder()))
                 .toList();
+        final List<BiomeModifier> biomeModifiers = Collections.unmodifiableList(timedBiomeModifiers);
+        final List<StructureModifier> structureModifiers = Collections.unmodifiableList(timedStructureModifiers);
 
+        final long start = System.nanoTime();
         // Apply sorted biome modifiers to each biome.
-        registries.registryOrThrow(Registries.BIOME).holders().forEach(biomeHolder -> {
+        final List<Holder.Reference<Biome>> biomes = registries.registryOrThrow(Registries.BIOME).holders().toList();
+        applyModifiers(biomes, parallel, biomeHolder -> {
             biomeHolder.value().modifiableBiomeInfo().applyBiomeModifiers(biomeHolder, biomeModifiers);
         });
         // Apply sorted structure modifiers to each structure.
-        registries.registryOrThrow(Registries.STRUCTURE).holders().forEach(structureHolder -> {
+        final List<Holder.Reference<Structure>> structures = registries.registryOrThrow(Registries.STRUCTURE).holders().toList();
+        applyModifiers(structures, parallel, structureHolder -> {
             structureHolder.value().modifiableStructureInfo().applyStructureModifiers(structureHolder, structureModifiers);
         });
+
+        if (LOGGER.isDebugEnabled(SERVERHOOKS)) {
+            LOGGER.debug(SERVERHOOKS, "Applied {} biome modifiers to {} biomes and {} structure modifiers to {} structures in {} ms{}",
+                    biomeModifiers.size(), biomes.size(), structureModifiers.size(), structures.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), parallel ? " (parallel)" : "");
+            for (TimedBiomeModifier modifier : timedBiomeModifiers)
+                LOGGER.debug(SERVERHOOKS, "Biome modifier {} took {} ms", modifier.key().location(), TimeUnit.NANOSECONDS.toMillis(modifier.nanos().sum()));
+            for (TimedStructureModifier modifier : timedStructureModifiers)
+                LOGGER.debug(SERVERHOOKS, "Structure modifier {} took {} ms", modifier.key().location(), TimeUnit.NANOSECONDS.toMillis(modifier.nanos().sum()));
+        }
+    }
+
+    /**
+     * Runs the action for each holder, either in order on the current thread or concurrently on the background executor.
+     * Each biome and structure owns its modifiable info, so holders can be processed independently of each other.
+     */
+    private static <T> void applyModifiers(final List<Holder.Reference<T>> holders, final boolean parallel, final Consumer<Holder.Reference<T>> action) {
+        if (!parallel) {
+            holders.forEach(action);
+            return;
+        }
+
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[holders.size()];
+        for (int i = 0; i < futures.length; i++) {
+            final Holder.Reference<T> holder = holders.get(i);
+            futures[i] = CompletableFuture.runAsync(() -> action.accept(holder), Util.backgroundExecutor());
+        }
+        try {
+            CompletableFuture.allOf(futures).join();
+        } catch (CompletionException e) {
+            // Rethrow the original exception so crash reports look the same as when applying sequentially
+            if (e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            if (e.getCause() instanceof Error error)
+                throw error;
+            throw e;
+        }
+    }
+
+    /**
+     * Biome modifier that accumulates the time spent in the modifier it wraps.
+     */
+    private record TimedBiomeModifier(ResourceKey<BiomeModifier> key, BiomeModifier inner, LongAdder nanos) implements BiomeModifier {
+        @Override
+        public void modify(Holder<Biome> biome, BiomeModifier.Phase phase, ModifiableBiomeInfo.BiomeInfo.Builder builder) {
+            final long start = System.nanoTime();
+            try {
+                inner.modify(biome, phase, builder);
+            } finally {
+                nanos.add(System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public Codec<? extends BiomeModifier> codec() {
+            return inner.codec();
+        }
+    }
+
+    /**
+     * Structure modifier that accumulates the time spent in the modifier it wraps.
+     */
+    private record TimedStructureModifier(ResourceKey<StructureModifier> key, StructureModifier inner, LongAdder nanos) implements StructureModifier {
+        @Override
+        public void modify(Holder<Structure> structure, StructureModifier.Phase phase, ModifiableStructureInfo.StructureInfo.Builder builder) {
+            final long start = System.nanoTime();
+            try {
+                inner.modify(structure, phase, builder);
+            } finally {
+                nanos.add(System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public Codec<? extends StructureModifier> codec() {
+            return inner.codec();
+        }
     }
 }
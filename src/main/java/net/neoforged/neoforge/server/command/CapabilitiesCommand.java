@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.neoforge.server.command;
+
+import com.mojang.brigadier.builder.ArgumentBuilder;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import java.util.Comparator;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.commands.arguments.DimensionArgument;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+
+class CapabilitiesCommand {
+    private static final int TOP_CHUNKS = 10;
+
+    static ArgumentBuilder<CommandSourceStack, ?> register() {
+        return Commands.literal("capabilities")
+                .requires(cs -> cs.hasPermission(2)) //permission
+                .then(Commands.literal("listeners")
+                        .then(Commands.argument("dim", DimensionArgument.dimension())
+                                .executes(ctx -> sendListeners(ctx.getSource(), DimensionArgument.getDimension(ctx, "dim"))))
+                        .executes(ctx -> sendListeners(ctx.getSource(), ctx.getSource().getLevel())));
+    }
+
+    private static int sendListeners(CommandSourceStack cs, ServerLevel level) {
+        var holder = level.getCapabilityListenerHolder();
+        cs.sendSuccess(() -> Component.translatable("commands.neoforge.capabilities.listeners.summary",
+                level.dimension().location().toString(), holder.getListenerCount(), holder.getInvalidationsLastTick()), false);
+
+        holder.getListenerCountsByChunk().long2IntEntrySet().stream()
+                .sorted(Comparator.comparingInt(Long2IntMap.Entry::getIntValue).reversed())
+                .limit(TOP_CHUNKS)
+                .forEach(entry -> {
+                    var chunkPos = new ChunkPos(entry.getLongKey());
+                    cs.sendSuccess(() -> Component.translatable("commands.neoforge.capabilities.listeners.chunk", chunkPos.x, chunkPos.z, entry.getIntValue()), false);
+                });
+        return 1;
+    }
+}
@@ -11,23 +11,31 @@ import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.builder.ArgumentBuilder;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.context.CommandContext;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
 import net.minecraft.commands.arguments.coordinates.BlockPosArgument;
 import net.minecraft.core.BlockPos;
 import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
 import net.neoforged.neoforge.server.command.generation.GenerationBar;
+import net.neoforged.neoforge.server.command.generation.GenerationProgress;
 import net.neoforged.neoforge.server.command.generation.GenerationTask;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Special thanks to Jasmine and Gegy for allowing us to use their pregenerator mod as a model to use in NeoForge!
  * Original code: <a href="https://github.com/jaskarth/fabric-chunkpregenerator">https://github.com/jaskarth/fabric-chunkpregenerator</a>
+ * <p>
+ * Each dimension can run its own generation, the commands act on the dimension of the command source.
  */
 class GenerateCommand {
-    private static GenerationTask activeTask;
-    private static GenerationBar generationBar;
+    private static final Map<ResourceKey<Level>, ActiveGeneration> ACTIVE_GENERATIONS = new ConcurrentHashMap<>();
 
     static ArgumentBuilder<CommandSourceStack, ?> register() {
         LiteralArgumentBuilder<CommandSourceStack> builder = Commands.literal("generate").requires(cs -> cs.hasPermission(4)); //permission
@@ -39,6 +47,11 @@ class GenerateCommand {
                                         .executes(ctx -> executeGeneration(ctx.getSource(), BlockPosArgument.getSpawnablePos(ctx, "pos"), getInt(ctx, "chunkRadius"), getBool(ctx, "progressBar"))))
                                 .executes(ctx -> executeGeneration(ctx.getSource(), BlockPosArgument.getSpawnablePos(ctx, "pos"), getInt(ctx, "chunkRadius"), true)))));
 
+        builder.then(Commands.literal("resume")
+                .then(Commands.argument("progressBar", BoolArgumentType.bool())
+                        .executes(ctx -> resumeGeneration(ctx.getSource(), getBool(ctx, "progressBar"))))
+                .executes(ctx -> resumeGeneration(ctx.getSource(), true)));
+
         builder.then(Commands.literal("stop")
                 .executes(ctx -> stopGeneration(ctx.getSource())));
 
@@ -59,17 +72,65 @@ class GenerateCommand {
         return BoolArgumentType.getBool(ctx, name);
     }
 
+    private static ActiveGeneration getActiveGeneration(CommandSourceStack source) {
+        ResourceKey<Level> dimension = source.getLevel().dimension();
+        ActiveGeneration generation = ACTIVE_GENERATIONS.get(dimension);
+        if (generation != null && !generation.task().isRunning()) {
+            // The task was stopped with the server
+            ACTIVE_GENERATIONS.remove(dimension, generation);
+            generation.closeBar();
+            return null;
+        }
+        return generation;
+    }
+
     private static int executeGeneration(CommandSourceStack source, BlockPos pos, int chunkRadius, boolean progressBar) {
-        if (activeTask != null) {
+        if (getActiveGeneration(source) != null) {
             source.sendSuccess(() -> Component.translatable("commands.neoforge.chunkgen.already_running"), true);
             return Command.SINGLE_SUCCESS;
         }
 
         ChunkPos origin = new ChunkPos(pos);
 
-        activeTask = new GenerationTask(source.getLevel(), origin.x, origin.z, chunkRadius);
+        GenerationTask task = new GenerationTask(source.getLevel(), origin.x, origin.z, chunkRadius);
         int diameter = chunkRadius * 2 + 1;
 
+        source.sendSuccess(() -> Component.translatable("commands.neoforge.chunkgen.started",
+                task.getTotalCount(), diameter, diameter, diameter * 16, diameter * 16), true);
+
+        runGeneration(source, task, progressBar);
+
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static int resumeGeneration(CommandSourceStack source, boolean progressBar) {
+        if (getActiveGeneration(source) != null) {
+            source.sendSuccess(() -> Component.translatable("commands.neoforge.chunkgen.already_running"), true);
+            return Command.SINGLE_SUCCESS;
+        }
+
+        ServerLevel level = source.getLevel();
+        GenerationProgress progress = GenerationProgress.get(level);
+        GenerationProgress.Area area = progress.getArea();
+        if (area == null) {
+            source.sendSuccess(() -> Component.translatable("commands.neoforge.chunkgen.no_saved_progress"), false);
+            return Command.SINGLE_SUCCESS;
+        }
+
+        GenerationTask task = new GenerationTask(level, area.x(), area.z(), area.radius(), progress.getCompletedPositions());
+
+        int count = task.getSkippedCount();
+        int total = task.getTotalCount();
+        double percent = (double) count / total * 100.0;
+        source.sendSuccess(() -> Component.translatable("commands.neoforge.chunkgen.resumed", count, total, percent), true);
+
+        runGeneration(source, task, progressBar);
+
+        return Command.SINGLE_SUCCESS;
+    }
+
+    private static void runGeneration(CommandSourceStack source, GenerationTask task, boolean progressBar) {
+        GenerationBar generationBar = null;
         if (progressBar) {
             generationBar = new GenerationBar();
 
@@ -78,27 +139,28 @@ class GenerateCommand {
             }
         }
 
-        source.sendSuccess(() -> Component.translatable("commands.neoforge.chunkgen.started",
-                activeTask.getTotalCount(), diameter, diameter, diameter * 16, diameter * 16), true);
+        ResourceKey<Level> dimension = source.getLevel().dimension();
+        ActiveGeneration generation = new ActiveGeneration(task, generationBar);
+        ACTIVE_GENERATIONS.put(dimension, generation);
 
-        activeTask.run(createPregenListener(source));
-
-        return Command.SINGLE_SUCCESS;
+        task.run(createPregenListener(source, dimension, generation));
     }
 
     private static int stopGeneration(CommandSourceStack source) {
-        if (activeTask != null) {
-            activeTask.stop();
+        ActiveGeneration generation = getActiveGeneration(source);
+        if (generation != null) {
+            GenerationTask task = generation.task();
+            // The saved progress is kept, so that the generation can be resumed later
+            task.stop();
 
-            int count = activeTask.getOkCount() + activeTask.getErrorCount() + activeTask.getSkippedCount();
-            int total = activeTask.getTotalCount();
+            int count = task.getOkCount() + task.getErrorCount() + task.getSkippedCount();
+            int total = task.getTotalCount();
 
             double percent = (double) count / total * 100.0;
             source.sendSuccess(() -> Component.translatable("commands.neoforge.chunkgen.stopped", count, total, percent), true);
 
-            generationBar.close();
-            generationBar = null;
-            activeTask = null;
+            generation.closeBar();
+            ACTIVE_GENERATIONS.remove(source.getLevel().dimension(), generation);
         } else {
             source.sendSuccess(() -> Component.translatable("commands.neoforge.chunkgen.not_running"), false);
         }
@@ -107,9 +169,11 @@ class GenerateCommand {
     }
 
     private static int getGenerationStatus(CommandSourceStack source) {
-        if (activeTask != null) {
-            int count = activeTask.getOkCount() + activeTask.getErrorCount() + activeTask.getSkippedCount();
-            int total = activeTask.getTotalCount();
+        ActiveGeneration generation = getActiveGeneration(source);
+        if (generation != null) {
+            GenerationTask task = generation.task();
+            int count = task.getOkCount() + task.getErrorCount() + task.getSkippedCount();
+            int total = task.getTotalCount();
 
             double percent = (double) count / total * 100.0;
             source.sendSuccess(() -> Component.translatable("commands.neoforge.chunkgen.status", count, total, percent), true);
@@ -125,12 +189,12 @@ class GenerateCommand {
         return Command.SINGLE_SUCCESS;
     }
 
-    private static GenerationTask.Listener createPregenListener(CommandSourceStack source) {
+    private static GenerationTask.Listener createPregenListener(CommandSourceStack source, ResourceKey<Level> dimension, ActiveGeneration generation) {
         return new GenerationTask.Listener() {
             @Override
             public void update(int ok, int error, int skipped, int total) {
-                if (generationBar != null) {
-                    generationBar.update(ok, error, skipped, total);
+                if (generation.bar() != null) {
+                    generation.bar().update(ok, error, skipped, total);
                 }
             }
 
@@ -142,12 +206,17 @@ class GenerateCommand {
                     source.sendFailure(Component.translatable("commands.neoforge.chunkgen.error"));
                 }
 
-                if (generationBar != null) {
-                    generationBar.close();
-                    generationBar = null;
-                }
-                activeTask = null;
+                generation.closeBar();
+                ACTIVE_GENERATIONS.remove(dimension, generation);
             }
         };
     }
+
+    private record ActiveGeneration(GenerationTask task, @Nullable GenerationBar bar) {
+        private void closeBar() {
+            if (bar != null) {
+                bar.close();
+            }
+        }
+    }
 }
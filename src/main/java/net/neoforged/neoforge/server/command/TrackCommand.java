@@ -7,12 +7,19 @@ package net.neoforged.neoforge.server.command;
 
 import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.builder.ArgumentBuilder;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.function.Function;
+import net.minecraft.Util;
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
 import net.minecraft.core.BlockPos;
@@ -20,7 +27,9 @@ import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.network.chat.Component;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.level.block.entity.BlockEntity;
+import net.neoforged.fml.loading.FMLPaths;
 import net.neoforged.neoforge.server.timings.ObjectTimings;
+import net.neoforged.neoforge.server.timings.TickTimeAccumulator;
 import net.neoforged.neoforge.server.timings.TimeTracker;
 
 class TrackCommand {
@@ -32,6 +41,7 @@ class TrackCommand {
                 .then(ResetTrackingCommand.register())
                 .then(TrackResultsEntity.register())
                 .then(TrackResultsBlockEntity.register())
+                .then(ExportTimingsCommand.register())
                 .then(StartTrackingCommand.register());
     }
 
@@ -44,6 +54,7 @@ class TrackCommand {
                                     .executes(ctx -> {
                                         int duration = IntegerArgumentType.getInteger(ctx, "duration");
                                         TimeTracker.BLOCK_ENTITY_UPDATE.reset();
+                                        TickTimeAccumulator.BLOCK_ENTITIES.resetChunkTimings();
                                         TimeTracker.BLOCK_ENTITY_UPDATE.enable(duration);
                                         ctx.getSource().sendSuccess(() -> Component.translatable("commands.neoforge.tracking.be.enabled", duration), true);
                                         return 0;
@@ -53,6 +64,7 @@ class TrackCommand {
                                     .executes(ctx -> {
                                         int duration = IntegerArgumentType.getInteger(ctx, "duration");
                                         TimeTracker.ENTITY_UPDATE.reset();
+                                        TickTimeAccumulator.ENTITIES.resetChunkTimings();
                                         TimeTracker.ENTITY_UPDATE.enable(duration);
                                         ctx.getSource().sendSuccess(() -> Component.translatable("commands.neoforge.tracking.entity.enabled", duration), true);
                                         return 0;
@@ -109,6 +121,49 @@ class TrackCommand {
         }
     }
 
+    private static class ExportTimingsCommand {
+        private static final int MAX_CHUNKS = 100;
+
+        static ArgumentBuilder<CommandSourceStack, ?> register() {
+            return Commands.literal("export")
+                    .requires(cs -> cs.hasPermission(2)) //permission
+                    .executes(ctx -> {
+                        Path file = FMLPaths.GAMEDIR.get().resolve("debug").resolve("tick-timings-" + Util.getFilenameFormattedDateTime() + ".csv");
+                        try {
+                            Files.createDirectories(file.getParent());
+                            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                                write(writer, TickTimeAccumulator.BLOCK_ENTITIES);
+                                write(writer, TickTimeAccumulator.ENTITIES);
+                            }
+                        } catch (IOException e) {
+                            ctx.getSource().sendFailure(Component.translatable("commands.neoforge.tracking.export.failed", e.getMessage()));
+                            return 0;
+                        }
+                        ctx.getSource().sendSuccess(() -> Component.translatable("commands.neoforge.tracking.export.success", file.toAbsolutePath().toString()), true);
+                        return 1;
+                    });
+        }
+
+        private static void write(BufferedWriter writer, TickTimeAccumulator<?, ?> accumulator) throws IOException {
+            writer.write(accumulator.getName() + " type,ticks,total ns,average ns,max ns,median ns,p99 ns");
+            writer.newLine();
+            for (TickTimeAccumulator.TypeTimings timings : accumulator.getTypeTimings()) {
+                writer.write(String.format(Locale.ROOT, "%s,%d,%d,%.1f,%d,%d,%d", timings.type(), timings.count(), timings.totalNanos(), timings.averageNanos(), timings.maxNanos(), timings.p50Nanos(), timings.p99Nanos()));
+                writer.newLine();
+            }
+            writer.newLine();
+
+            writer.write(accumulator.getName() + " dimension,chunk x,chunk z,ticks,total ns");
+            writer.newLine();
+            List<TickTimeAccumulator.ChunkTimings> chunks = accumulator.getChunkTimings();
+            for (TickTimeAccumulator.ChunkTimings timings : chunks.subList(0, Math.min(MAX_CHUNKS, chunks.size()))) {
+                writer.write(String.format(Locale.ROOT, "%s,%d,%d,%d,%d", timings.dimension().location(), timings.pos().x, timings.pos().z, timings.count(), timings.totalNanos()));
+                writer.newLine();
+            }
+            writer.newLine();
+        }
+    }
+
     private static class TrackResultsEntity {
         static ArgumentBuilder<CommandSourceStack, ?> register() {
             return Commands.literal("entity").executes(ctx -> TrackResults.execute(ctx.getSource(), TimeTracker.ENTITY_UPDATE, data -> {
@@ -44,6 +44,41 @@ public class CoarseOnionIterator extends AbstractIterator<ChunkPos> {
         return cell.next();
     }
 
+    /**
+     * Skips the given number of positions, only going through the positions of the last skipped cell one by one.
+     * Must be called before the iteration starts.
+     *
+     * @return the number of skipped positions that are within the radius
+     */
+    public int skip(int count) {
+        if (this.cell != null) {
+            throw new IllegalStateException("Cannot skip positions once the iteration started");
+        }
+
+        int skipped = 0;
+        int skippedInRadius = 0;
+        while (skipped < count && this.cells.hasNext()) {
+            CellIterator cell = this.createCellIterator(this.cells.next());
+            int size = cell.size();
+            if (skipped + size <= count) {
+                skipped += size;
+                skippedInRadius += cell.sizeInRadius(this.radius);
+                continue;
+            }
+
+            this.cell = cell;
+            while (skipped < count) {
+                ChunkPos pos = cell.next();
+                skipped++;
+                if (Math.abs(pos.x) <= this.radius && Math.abs(pos.z) <= this.radius) {
+                    skippedInRadius++;
+                }
+            }
+        }
+
+        return skippedInRadius;
+    }
+
     private CellIterator createCellIterator(ChunkPos pos) {
         int size = this.cellSize;
         int radius = this.radius;
@@ -73,6 +108,25 @@ public class CoarseOnionIterator extends AbstractIterator<ChunkPos> {
             this.z1 = z1;
         }
 
+        /**
+         * {@return the number of positions of this cell, which must not have been iterated yet}
+         * A cell outside the radius still has one position per row.
+         */
+        private int size() {
+            if (this.z > this.z1) {
+                return 0;
+            }
+            return (this.z1 - this.z + 1) * (this.x0 <= this.x1 ? this.x1 - this.x0 + 1 : 1);
+        }
+
+        /**
+         * {@return the number of positions of this cell that are within the given radius}
+         * The positions of a cell are either all within the radius or all outside of it.
+         */
+        private int sizeInRadius(int radius) {
+            return this.x0 <= this.x1 || Math.abs(this.x0) <= radius ? this.size() : 0;
+        }
+
         @Override
         public boolean hasNext() {
             return this.z <= this.z1;
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.neoforge.server.command.generation;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.saveddata.SavedData;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Saved progress of the {@link GenerationTask} of a level, used to resume the generation after a restart.
+ * <p>
+ * The progress is stored as the number of positions of the generation order that were fully processed,
+ * the generation resumes after these positions.
+ */
+@ApiStatus.Internal
+public class GenerationProgress extends SavedData {
+    private static final String NAME = "neoforge_generation";
+
+    public static GenerationProgress get(ServerLevel level) {
+        return level.getDataStorage().computeIfAbsent(new SavedData.Factory<>(GenerationProgress::new, GenerationProgress::load), NAME);
+    }
+
+    @Nullable
+    private Area area;
+    private int completedPositions;
+
+    private static GenerationProgress load(CompoundTag tag) {
+        GenerationProgress progress = new GenerationProgress();
+        if (tag.contains("radius")) {
+            progress.area = new Area(tag.getInt("x"), tag.getInt("z"), tag.getInt("radius"));
+            progress.completedPositions = tag.getInt("completed_positions");
+        }
+        return progress;
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag) {
+        if (area != null) {
+            tag.putInt("x", area.x());
+            tag.putInt("z", area.z());
+            tag.putInt("radius", area.radius());
+            tag.putInt("completed_positions", completedPositions);
+        }
+        return tag;
+    }
+
+    /**
+     * {@return the area of the saved generation, or {@code null} if there is none}
+     */
+    @Nullable
+    public Area getArea() {
+        return area;
+    }
+
+    public int getCompletedPositions() {
+        return completedPositions;
+    }
+
+    public void start(int x, int z, int radius) {
+        this.area = new Area(x, z, radius);
+        this.completedPositions = 0;
+        setDirty();
+    }
+
+    public void update(int completedPositions) {
+        if (this.area != null && this.completedPositions != completedPositions) {
+            this.completedPositions = completedPositions;
+            setDirty();
+        }
+    }
+
+    public void clear() {
+        if (this.area != null) {
+            this.area = null;
+            this.completedPositions = 0;
+            setDirty();
+        }
+    }
+
+    /**
+     * The area of a generation, as its center chunk and its radius in chunks.
+     */
+    public record Area(int x, int z, int radius) {}
+}
@@ -6,12 +6,30 @@
 package net.neoforged.neoforge.server.command.generation;
 
 import com.mojang.datafixers.util.Either;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntRBTreeSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.longs.LongArrayList;
 import it.unimi.dsi.fastutil.longs.LongList;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import net.minecraft.Util;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.StringTag;
 import net.minecraft.nbt.visitors.CollectFields;
@@ -25,31 +43,68 @@ import net.minecraft.server.level.TicketType;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.chunk.ChunkAccess;
 import net.minecraft.world.level.chunk.ChunkStatus;
+import net.minecraft.world.level.dimension.DimensionType;
+import net.minecraft.world.level.storage.LevelResource;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.ApiStatus;
 
 /**
  * Special thanks to Jasmine and Gegy for allowing us to use their pregenerator mod as a model to use in NeoForge!
  * Original code: <a href="https://github.com/jaskarth/fabric-chunkpregenerator">https://github.com/jaskarth/fabric-chunkpregenerator</a>
+ * <p>
+ * Chunks are collected off-thread: region file headers are read to skip the chunks that were never saved,
+ * and the status of the other chunks is scanned in bulk to skip the chunks that are already fully generated.
+ * The number of chunks being generated at once adapts to the tick time of the server.
+ * The progress is saved to the level in {@link GenerationProgress}, so that the generation can be resumed after a restart.
  */
 public class GenerationTask {
     private static final Logger LOGGER = LogManager.getLogger();
-    private static final int BATCH_SIZE = 32;
-    private static final int QUEUE_THRESHOLD = 8;
+    private static final int INITIAL_WINDOW = 32;
+    private static final int MIN_WINDOW = 8;
+    private static final int MAX_WINDOW = 1024;
+    /**
+     * Average tick time above which fewer chunks are generated at once.
+     */
+    private static final long SLOW_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    /**
+     * Average tick time below which more chunks may be generated at once.
+     */
+    private static final long FAST_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(40);
+    private static final long SHRINK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
     private static final int COARSE_CELL_SIZE = 4;
+    private static final int REGION_SIZE = 32;
+    private static final BitSet ALL_CHUNKS_PRESENT = new BitSet(REGION_SIZE * REGION_SIZE);
+    private static final Set<GenerationTask> RUNNING_TASKS = ConcurrentHashMap.newKeySet();
+
+    static {
+        ALL_CHUNKS_PRESENT.set(0, REGION_SIZE * REGION_SIZE);
+    }
 
     private final MinecraftServer server;
     private final ServerChunkCache chunkSource;
+    private final GenerationProgress progress;
+    private final Path regionFolder;
 
-    private final Iterator<ChunkPos> iterator;
+    private final CoarseOnionIterator iterator;
     private final int x;
     private final int z;
     private final int radius;
 
     private final int totalCount;
 
+    // Only accessed when collecting chunks, which never happens concurrently
+    private int nextPosition;
+    private final Long2ObjectMap<BitSet> regionHeaders = new Long2ObjectOpenHashMap<>();
+
     private final Object queueLock = new Object();
+    // Guarded by queueLock
+    private final IntSortedSet pendingPositions = new IntRBTreeSet();
+    private int collectedPositions;
+    private int window = INITIAL_WINDOW;
+    private long lastShrinkTime;
 
+    private final AtomicBoolean enqueueScheduled = new AtomicBoolean();
     private final AtomicInteger queuedCount = new AtomicInteger();
     private final AtomicInteger okCount = new AtomicInteger();
     private final AtomicInteger errorCount = new AtomicInteger();
@@ -61,8 +116,17 @@ public class GenerationTask {
     public static final TicketType<ChunkPos> NEOFORGE_GENERATE_FORCED = TicketType.create("neoforge_generate_forced", Comparator.comparingLong(ChunkPos::toLong));
 
     public GenerationTask(ServerLevel serverLevel, int x, int z, int radius) {
+        this(serverLevel, x, z, radius, 0);
+    }
+
+    /**
+     * Creates a task that resumes a generation, skipping the given number of positions of the generation order.
+     */
+    public GenerationTask(ServerLevel serverLevel, int x, int z, int radius, int completedPositions) {
         this.server = serverLevel.getServer();
         this.chunkSource = serverLevel.getChunkSource();
+        this.progress = GenerationProgress.get(serverLevel);
+        this.regionFolder = DimensionType.getStorageFolder(serverLevel.dimension(), this.server.getWorldPath(LevelResource.ROOT)).resolve("region");
 
         this.iterator = new CoarseOnionIterator(radius, COARSE_CELL_SIZE);
         this.x = x;
@@ -71,6 +135,24 @@ public class GenerationTask {
 
         int diameter = radius * 2 + 1;
         this.totalCount = diameter * diameter;
+
+        // The positions before the resumed one were all processed. Skipping only goes through the positions of the last skipped cell,
+        // so it is done right away and the skipped count is known before the task runs.
+        if (completedPositions > 0) {
+            this.skippedCount.set(this.iterator.skip(completedPositions));
+        }
+        this.nextPosition = completedPositions;
+        this.collectedPositions = completedPositions;
+    }
+
+    /**
+     * Stops all the running tasks, for example because the server is stopping.
+     */
+    @ApiStatus.Internal
+    public static void stopAll() {
+        for (GenerationTask task : RUNNING_TASKS) {
+            task.stop();
+        }
     }
 
     public int getOkCount() {
@@ -89,14 +171,34 @@ public class GenerationTask {
         return this.totalCount;
     }
 
+    public boolean isRunning() {
+        return this.listener != null && !this.stopped;
+    }
+
+    /**
+     * {@return the number of positions of the generation order that were fully processed}
+     */
+    public int getCompletedPositions() {
+        synchronized (this.queueLock) {
+            return this.pendingPositions.isEmpty() ? this.collectedPositions : this.pendingPositions.firstInt();
+        }
+    }
+
     public void run(Listener listener) {
         if (this.listener != null) {
             throw new IllegalStateException("already running!");
         }
 
         this.listener = listener;
+        RUNNING_TASKS.add(this);
+
+        if (this.nextPosition == 0) {
+            this.progress.start(this.x, this.z, this.radius);
+        } else {
+            this.updateListener();
+        }
 
-        this.server.submit(() -> CompletableFuture.runAsync(this::tryEnqueueTasks));
+        this.scheduleEnqueueTasks();
     }
 
     public void stop() {
@@ -104,32 +206,88 @@ public class GenerationTask {
             this.stopped = true;
             this.listener = null;
         }
+        RUNNING_TASKS.remove(this);
+        this.server.execute(() -> this.progress.update(this.getCompletedPositions()));
+    }
+
+    private void scheduleEnqueueTasks() {
+        if (this.stopped || !this.enqueueScheduled.compareAndSet(false, true)) {
+            return;
+        }
+
+        Util.backgroundExecutor().execute(this::tryEnqueueTasks);
     }
 
+    /**
+     * Collects the next batch of chunks and enqueues the ones that are not generated yet,
+     * then continues with the next batch once the scans of the batch are done, until the window is full.
+     * Only one collection runs at a time, until {@link #finishEnqueueTasks(boolean)} is called.
+     */
     private void tryEnqueueTasks() {
-        synchronized (this.queueLock) {
-            if (this.stopped) {
+        try {
+            int enqueueCount = this.getWindow() - this.queuedCount.get();
+            if (this.stopped || enqueueCount <= 0 || !this.iterator.hasNext()) {
+                this.finishEnqueueTasks(!this.iterator.hasNext());
                 return;
             }
 
-            int enqueueCount = BATCH_SIZE - this.queuedCount.get();
-            if (enqueueCount <= 0) {
-                return;
+            LongList candidates = new LongArrayList(enqueueCount);
+            IntList candidatePositions = new IntArrayList(enqueueCount);
+            this.collectCandidates(enqueueCount, candidates, candidatePositions);
+            int collectedPositions = this.nextPosition;
+
+            // Continue on the background executor instead of waiting for the IO worker to scan the chunks
+            this.findFullyGeneratedChunks(candidates).thenAcceptAsync(generated -> {
+                this.enqueueCollectedChunks(candidates, candidatePositions, generated, collectedPositions);
+                this.tryEnqueueTasks();
+            }, Util.backgroundExecutor()).exceptionally(throwable -> {
+                this.failEnqueueTasks(throwable);
+                return null;
+            });
+        } catch (Throwable t) {
+            this.failEnqueueTasks(t);
+        }
+    }
+
+    private void finishEnqueueTasks(boolean exhausted) {
+        this.enqueueScheduled.set(false);
+
+        int queuedCount = this.queuedCount.get();
+        if (exhausted) {
+            // Otherwise the last accepted result completes the task
+            if (queuedCount == 0) {
+                this.complete();
             }
+        } else if (queuedCount <= this.getRefillThreshold()) {
+            // Results may have been accepted while chunks were being collected
+            this.scheduleEnqueueTasks();
+        }
+    }
 
-            LongList chunks = this.collectChunks(enqueueCount);
-            if (chunks.isEmpty()) {
-                this.listener.complete(this.errorCount.get());
-                this.stopped = true;
+    private void failEnqueueTasks(Throwable throwable) {
+        LOGGER.error("Encountered unexpected error while collecting chunks to generate", throwable);
+        this.stop();
+        this.enqueueScheduled.set(false);
+    }
+
+    private void complete() {
+        Listener listener;
+        synchronized (this.queueLock) {
+            if (this.stopped) {
                 return;
             }
-
-            this.queuedCount.getAndAdd(chunks.size());
-            this.server.submit(() -> this.enqueueChunks(chunks));
+            listener = this.listener;
+            this.stopped = true;
         }
+        RUNNING_TASKS.remove(this);
+
+        this.server.execute(() -> {
+            this.progress.clear();
+            listener.complete(this.errorCount.get());
+        });
     }
 
-    private void enqueueChunks(LongList chunks) {
+    private void enqueueChunks(LongList chunks, IntList positions) {
         for (int i = 0; i < chunks.size(); i++) {
             long chunk = chunks.getLong(i);
             this.acquireChunk(chunk);
@@ -142,62 +300,142 @@ public class GenerationTask {
 
         for (int i = 0; i < chunks.size(); i++) {
             long chunkLongPos = chunks.getLong(i);
+            int position = positions.getInt(i);
 
             ChunkHolder holder = chunkMap.getVisibleChunkIfPresent(chunkLongPos);
             if (holder == null) {
                 LOGGER.warn("Added ticket for chunk but it was not added! ({}; {})", ChunkPos.getX(chunkLongPos), ChunkPos.getZ(chunkLongPos));
-                this.acceptChunkResult(chunkLongPos, ChunkHolder.UNLOADED_CHUNK);
+                this.acceptChunkResult(chunkLongPos, position, ChunkHolder.UNLOADED_CHUNK);
                 continue;
             }
 
             holder.getOrScheduleFuture(ChunkStatus.FULL, chunkMap).whenComplete((result, throwable) -> {
                 if (throwable == null) {
-                    this.acceptChunkResult(chunkLongPos, result);
+                    this.acceptChunkResult(chunkLongPos, position, result);
                 } else {
                     LOGGER.warn("Encountered unexpected error while generating chunk", throwable);
-                    this.acceptChunkResult(chunkLongPos, ChunkHolder.UNLOADED_CHUNK);
+                    this.acceptChunkResult(chunkLongPos, position, ChunkHolder.UNLOADED_CHUNK);
                 }
             });
         }
     }
 
-    private void acceptChunkResult(long chunk, Either<ChunkAccess, ChunkHolder.ChunkLoadingFailure> result) {
-        this.server.submit(() -> this.releaseChunk(chunk));
-
+    private void acceptChunkResult(long chunk, int position, Either<ChunkAccess, ChunkHolder.ChunkLoadingFailure> result) {
         if (result.left().isPresent()) {
             this.okCount.getAndIncrement();
         } else {
             this.errorCount.getAndIncrement();
         }
 
-        this.listener.update(this.okCount.get(), this.errorCount.get(), this.skippedCount.get(), this.totalCount);
+        synchronized (this.queueLock) {
+            this.pendingPositions.remove(position);
+        }
+
+        this.server.submit(() -> {
+            this.releaseChunk(chunk);
+            if (!this.stopped) {
+                this.progress.update(this.getCompletedPositions());
+            }
+        });
+
+        this.updateListener();
 
         int queuedCount = this.queuedCount.decrementAndGet();
-        if (queuedCount <= QUEUE_THRESHOLD) {
-            this.tryEnqueueTasks();
+        this.adjustWindow(queuedCount);
+        if (queuedCount <= this.getRefillThreshold()) {
+            this.scheduleEnqueueTasks();
+        }
+    }
+
+    private void updateListener() {
+        Listener listener = this.listener;
+        if (listener != null) {
+            listener.update(this.okCount.get(), this.errorCount.get(), this.skippedCount.get(), this.totalCount);
+        }
+    }
+
+    private int getWindow() {
+        synchronized (this.queueLock) {
+            return this.window;
+        }
+    }
+
+    private int getRefillThreshold() {
+        return this.getWindow() / 4;
+    }
+
+    /**
+     * Generates fewer chunks at once when the server is lagging behind, and more when it keeps up and all the chunks are in use.
+     */
+    private void adjustWindow(int queuedCount) {
+        long tickNanos = this.getAverageTickNanos();
+        synchronized (this.queueLock) {
+            if (tickNanos > SLOW_TICK_NANOS) {
+                long now = System.nanoTime();
+                if (now - this.lastShrinkTime > SHRINK_INTERVAL_NANOS) {
+                    this.lastShrinkTime = now;
+                    this.window = Math.max(MIN_WINDOW, this.window / 2);
+                }
+            } else if (tickNanos < FAST_TICK_NANOS && queuedCount >= this.window / 2) {
+                this.window = Math.min(MAX_WINDOW, this.window + 1);
+            }
         }
     }
 
-    private LongList collectChunks(int count) {
-        LongList chunks = new LongArrayList(count);
+    private long getAverageTickNanos() {
+        long[] times = this.server.getTickTimesNanos();
+        long sum = 0L;
+        for (long time : times)
+            sum += time;
+        return sum / times.length;
+    }
 
+    /**
+     * Takes the next candidates of the generation order, whether they are already generated is checked all at once afterwards.
+     */
+    private void collectCandidates(int count, LongList candidates, IntList candidatePositions) {
         Iterator<ChunkPos> iterator = this.iterator;
-        int i = 0;
-        while (i < count && iterator.hasNext()) {
+        while (candidates.size() < count && iterator.hasNext()) {
             ChunkPos chunkPosInLocalSpace = iterator.next();
-            if (Math.abs(chunkPosInLocalSpace.x) <= this.radius && Math.abs(chunkPosInLocalSpace.z) <= this.radius) {
-                if (isChunkFullyGenerated(chunkPosInLocalSpace)) {
-                    this.skippedCount.incrementAndGet();
-                    this.listener.update(this.okCount.get(), this.errorCount.get(), this.skippedCount.get(), this.totalCount);
-                    continue;
-                }
+            int position = this.nextPosition++;
+            if (this.isInRadius(chunkPosInLocalSpace)) {
+                candidates.add(ChunkPos.asLong(chunkPosInLocalSpace.x + this.x, chunkPosInLocalSpace.z + this.z));
+                candidatePositions.add(position);
+            }
+        }
+    }
+
+    private void enqueueCollectedChunks(LongList candidates, IntList candidatePositions, BitSet generated, int collectedPositions) {
+        LongList chunks = new LongArrayList(candidates.size());
+        IntList positions = new IntArrayList(candidates.size());
+        synchronized (this.queueLock) {
+            if (this.stopped) {
+                return;
+            }
 
-                chunks.add(ChunkPos.asLong(chunkPosInLocalSpace.x + this.x, chunkPosInLocalSpace.z + this.z));
-                i++;
+            for (int i = 0; i < candidates.size(); i++) {
+                if (!generated.get(i)) {
+                    chunks.add(candidates.getLong(i));
+                    positions.add(candidatePositions.getInt(i));
+                    this.pendingPositions.add(candidatePositions.getInt(i));
+                }
             }
+            this.collectedPositions = collectedPositions;
+        }
+
+        if (!generated.isEmpty()) {
+            this.skippedCount.addAndGet(generated.cardinality());
+            this.updateListener();
+        }
+
+        if (!chunks.isEmpty()) {
+            this.queuedCount.getAndAdd(chunks.size());
+            this.server.submit(() -> this.enqueueChunks(chunks, positions));
         }
+    }
 
-        return chunks;
+    private boolean isInRadius(ChunkPos chunkPosInLocalSpace) {
+        return Math.abs(chunkPosInLocalSpace.x) <= this.radius && Math.abs(chunkPosInLocalSpace.z) <= this.radius;
     }
 
     private void acquireChunk(long chunk) {
@@ -207,19 +445,78 @@ public class GenerationTask {
 
     private void releaseChunk(long chunk) {
         ChunkPos pos = new ChunkPos(chunk);
-        this.chunkSource.addRegionTicket(NEOFORGE_GENERATE_FORCED, pos, 0, pos);
+        this.chunkSource.removeRegionTicket(NEOFORGE_GENERATE_FORCED, pos, 0, pos);
+    }
+
+    /**
+     * {@return a future of the indices of the given chunks that are already fully generated}
+     */
+    private CompletableFuture<BitSet> findFullyGeneratedChunks(LongList chunks) {
+        CollectFields[] results = new CollectFields[chunks.size()];
+        CompletableFuture<?>[] scans = new CompletableFuture<?>[chunks.size()];
+        for (int i = 0; i < chunks.size(); i++) {
+            long chunk = chunks.getLong(i);
+            if (!this.isChunkSaved(chunk)) {
+                // A chunk missing from the region file was never saved, so it cannot be generated yet
+                scans[i] = CompletableFuture.completedFuture(null);
+                continue;
+            }
+
+            CollectFields collectFields = new CollectFields(new FieldSelector(StringTag.TYPE, "Status"));
+            results[i] = collectFields;
+            // Scan all the chunks at once, the scans are queued by the IO worker
+            scans[i] = this.chunkSource.chunkMap.chunkScanner().scanChunk(new ChunkPos(chunk), collectFields).exceptionally(throwable -> {
+                LOGGER.warn("Failed to scan chunk ({}; {}) to check if it is generated", ChunkPos.getX(chunk), ChunkPos.getZ(chunk), throwable);
+                return null;
+            });
+        }
+        return CompletableFuture.allOf(scans).thenApply(v -> {
+            BitSet generated = new BitSet(chunks.size());
+            for (int i = 0; i < results.length; i++) {
+                if (results[i] != null && results[i].getResult() instanceof CompoundTag compoundTag && compoundTag.getString("Status").equals("minecraft:full")) {
+                    generated.set(i);
+                }
+            }
+            return generated;
+        });
     }
 
-    private boolean isChunkFullyGenerated(ChunkPos chunkPosInLocalSpace) {
-        ChunkPos chunkPosInWorldSpace = new ChunkPos(chunkPosInLocalSpace.x + this.x, chunkPosInLocalSpace.z + this.z);
-        CollectFields collectFields = new CollectFields(new FieldSelector(StringTag.TYPE, "Status"));
-        this.chunkSource.chunkMap.chunkScanner().scanChunk(chunkPosInWorldSpace, collectFields).join();
+    /**
+     * {@return whether the chunk may be present in its region file}
+     * Only reads the header of each region file once, the chunks that are saved afterwards are not taken into account.
+     */
+    private boolean isChunkSaved(long chunk) {
+        int chunkX = ChunkPos.getX(chunk);
+        int chunkZ = ChunkPos.getZ(chunk);
+        int regionX = chunkX >> 5;
+        int regionZ = chunkZ >> 5;
+        BitSet savedChunks = this.regionHeaders.computeIfAbsent(ChunkPos.asLong(regionX, regionZ), region -> this.readRegionHeader(regionX, regionZ));
+        return savedChunks.get((chunkX & (REGION_SIZE - 1)) + (chunkZ & (REGION_SIZE - 1)) * REGION_SIZE);
+    }
 
-        if (collectFields.getResult() instanceof CompoundTag compoundTag) {
-            return compoundTag.getString("Status").equals("minecraft:full");
+    private BitSet readRegionHeader(int regionX, int regionZ) {
+        Path file = this.regionFolder.resolve("r." + regionX + "." + regionZ + ".mca");
+        if (!Files.isRegularFile(file)) {
+            return new BitSet();
         }
 
-        return false;
+        // The header starts with the location of each chunk of the region, which is zero if the chunk is not saved
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(REGION_SIZE * REGION_SIZE * Integer.BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {}
+            header.flip();
+
+            BitSet savedChunks = new BitSet(REGION_SIZE * REGION_SIZE);
+            for (int i = 0; header.remaining() >= Integer.BYTES; i++) {
+                if (header.getInt() != 0) {
+                    savedChunks.set(i);
+                }
+            }
+            return savedChunks;
+        } catch (IOException e) {
+            LOGGER.warn("Failed to read the header of region file {}, scanning all of its chunks", file, e);
+            return ALL_CHUNKS_PRESENT;
+        }
     }
 
     public interface Listener {
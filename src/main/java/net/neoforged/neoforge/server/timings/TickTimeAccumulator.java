@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.neoforge.server.timings;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.entity.BlockEntityType;
+
+/**
+ * Always-on accumulator of the server tick times of ticking objects (currently block entities and entities),
+ * aggregated per object type, and per chunk while the matching {@link TimeTracker} is enabled.
+ * <p>
+ * Unlike {@link TimeTracker}, which records the individual times of objects for a limited duration once enabled,
+ * this only keeps aggregated counters, so it is cheap enough to run at all times.
+ * Recording a tick does not take any lock outside of tracking sessions.
+ * Per-chunk data is only collected during {@code /neoforge track} sessions, and is cleared when a new session starts,
+ * so that it does not grow with every chunk that was ever loaded.
+ * The accumulated data can be read with {@link #getTypeTimings()} and {@link #getChunkTimings()},
+ * is exported to JFR recordings by {@link TickTimingsEvent}, and can be written to a file with {@code /neoforge track export}.
+ * <p>
+ * Data is accumulated from the start of the server, or from the last {@linkplain #reset() reset}.
+ *
+ * @param <T> the type of the ticking objects
+ * @param <K> the type of the keys the objects are aggregated by
+ */
+public final class TickTimeAccumulator<T, K> {
+    /**
+     * Accumulator of the tick times of block entities
+     */
+    public static final TickTimeAccumulator<BlockEntity, BlockEntityType<?>> BLOCK_ENTITIES = new TickTimeAccumulator<>(
+            "block_entity",
+            BlockEntity::getType,
+            type -> Objects.toString(BuiltInRegistries.BLOCK_ENTITY_TYPE.getKey(type)),
+            be -> be.getLevel().dimension(),
+            be -> {
+                BlockPos pos = be.getBlockPos();
+                return ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+            },
+            TimeTracker.BLOCK_ENTITY_UPDATE);
+    /**
+     * Accumulator of the tick times of entities
+     */
+    public static final TickTimeAccumulator<Entity, EntityType<?>> ENTITIES = new TickTimeAccumulator<>(
+            "entity",
+            Entity::getType,
+            type -> BuiltInRegistries.ENTITY_TYPE.getKey(type).toString(),
+            entity -> entity.level().dimension(),
+            entity -> entity.chunkPosition().toLong(),
+            TimeTracker.ENTITY_UPDATE);
+
+    /**
+     * Number of buckets of the tick time histograms, bucket {@code i} counts the times in {@code [2^i, 2^(i+1))} nanoseconds.
+     */
+    private static final int HISTOGRAM_BUCKETS = 40;
+
+    private final String name;
+    private final Function<T, K> typeGetter;
+    private final Function<K, String> typeNamer;
+    private final Function<T, ResourceKey<Level>> dimensionGetter;
+    private final ToLongFunction<T> chunkGetter;
+    private final TimeTracker<T> chunkTracker;
+
+    private final Map<K, Stats> byType = new ConcurrentHashMap<>();
+    // Guarded by this accumulator, only written during tracking sessions
+    private final Map<ResourceKey<Level>, Long2ObjectMap<ChunkStats>> byChunk = new IdentityHashMap<>();
+
+    private TickTimeAccumulator(String name, Function<T, K> typeGetter, Function<K, String> typeNamer, Function<T, ResourceKey<Level>> dimensionGetter, ToLongFunction<T> chunkGetter, TimeTracker<T> chunkTracker) {
+        this.name = name;
+        this.typeGetter = typeGetter;
+        this.typeNamer = typeNamer;
+        this.dimensionGetter = dimensionGetter;
+        this.chunkGetter = chunkGetter;
+        this.chunkTracker = chunkTracker;
+    }
+
+    /**
+     * {@return the name of the kind of objects tracked by this accumulator}
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records the time taken by one tick of the object.
+     *
+     * @param object The ticked object
+     * @param nanos  The time the tick took, in nanoseconds
+     */
+    public void record(T object, long nanos) {
+        K type = typeGetter.apply(object);
+        Stats stats = byType.get(type);
+        if (stats == null)
+            stats = byType.computeIfAbsent(type, t -> new Stats());
+        stats.add(nanos);
+
+        if (chunkTracker.isEnabled())
+            recordChunk(object, nanos);
+    }
+
+    private void recordChunk(T object, long nanos) {
+        ResourceKey<Level> dimension = dimensionGetter.apply(object);
+        long chunk = chunkGetter.applyAsLong(object);
+        synchronized (this) {
+            byChunk.computeIfAbsent(dimension, d -> new Long2ObjectOpenHashMap<>()).computeIfAbsent(chunk, c -> new ChunkStats()).add(nanos);
+        }
+    }
+
+    /**
+     * Clears all the accumulated data.
+     */
+    public void reset() {
+        byType.clear();
+        resetChunkTimings();
+    }
+
+    /**
+     * Clears the accumulated per-chunk data, called when a new tracking session starts.
+     */
+    public synchronized void resetChunkTimings() {
+        byChunk.clear();
+    }
+
+    /**
+     * {@return the accumulated timings of each object type, sorted by decreasing total time}
+     */
+    public List<TypeTimings> getTypeTimings() {
+        List<TypeTimings> list = new ArrayList<>();
+        byType.forEach((type, stats) -> list.add(stats.snapshot(typeNamer.apply(type))));
+        list.sort(Comparator.comparingLong(TypeTimings::totalNanos).reversed());
+        return list;
+    }
+
+    /**
+     * {@return the timings of each chunk accumulated during the last tracking session, sorted by decreasing total time}
+     */
+    public List<ChunkTimings> getChunkTimings() {
+        List<ChunkTimings> list = new ArrayList<>();
+        synchronized (this) {
+            byChunk.forEach((dimension, chunks) -> {
+                for (Long2ObjectMap.Entry<ChunkStats> entry : chunks.long2ObjectEntrySet()) {
+                    ChunkStats stats = entry.getValue();
+                    list.add(new ChunkTimings(dimension, new ChunkPos(entry.getLongKey()), stats.count, stats.totalNanos));
+                }
+            });
+        }
+        list.sort(Comparator.comparingLong(ChunkTimings::totalNanos).reversed());
+        return list;
+    }
+
+    /**
+     * Accumulated tick timings of an object type.
+     *
+     * @param type       The registry name of the type
+     * @param count      The number of ticks recorded
+     * @param totalNanos The total time of the recorded ticks
+     * @param maxNanos   The time of the longest recorded tick
+     * @param p50Nanos   An upper bound of the median tick time
+     * @param p99Nanos   An upper bound of the 99th percentile tick time
+     */
+    public record TypeTimings(String type, long count, long totalNanos, long maxNanos, long p50Nanos, long p99Nanos) {
+        public double averageNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+    }
+
+    /**
+     * Accumulated tick timings of the objects of a chunk.
+     *
+     * @param dimension  The dimension of the chunk
+     * @param pos        The position of the chunk
+     * @param count      The number of ticks recorded
+     * @param totalNanos The total time of the recorded ticks
+     */
+    public record ChunkTimings(ResourceKey<Level> dimension, ChunkPos pos, long count, long totalNanos) {}
+
+    /**
+     * Lock-free counters of an object type. A snapshot taken while ticks are recorded may be slightly inconsistent.
+     */
+    private static final class Stats {
+        private final LongAdder[] histogram = new LongAdder[HISTOGRAM_BUCKETS];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private Stats() {
+            for (int i = 0; i < HISTOGRAM_BUCKETS; i++)
+                histogram[i] = new LongAdder();
+        }
+
+        private void add(long nanos) {
+            if (nanos < 0)
+                nanos = 0;
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            int bucket = 63 - Long.numberOfLeadingZeros(nanos | 1);
+            histogram[Math.min(bucket, HISTOGRAM_BUCKETS - 1)].increment();
+        }
+
+        private TypeTimings snapshot(String type) {
+            long[] buckets = new long[HISTOGRAM_BUCKETS];
+            long count = 0;
+            for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+                buckets[i] = histogram[i].sum();
+                count += buckets[i];
+            }
+            long maxNanos = this.maxNanos.get();
+            return new TypeTimings(type, count, totalNanos.sum(), maxNanos, percentile(buckets, count, maxNanos, 0.5), percentile(buckets, count, maxNanos, 0.99));
+        }
+
+        /**
+         * {@return the upper bound of the histogram bucket containing the given percentile, capped by the max time}
+         */
+        private static long percentile(long[] buckets, long count, long maxNanos, double percentile) {
+            long threshold = (long) Math.ceil(count * percentile);
+            long seen = 0;
+            for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+                seen += buckets[i];
+                if (seen >= threshold)
+                    return Math.min((1L << (i + 1)) - 1, maxNanos);
+            }
+            return maxNanos;
+        }
+    }
+
+    private static final class ChunkStats {
+        private long count;
+        private long totalNanos;
+
+        private void add(long nanos) {
+            count++;
+            totalNanos += nanos;
+        }
+    }
+}
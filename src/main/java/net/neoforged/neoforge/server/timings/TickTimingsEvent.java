@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.neoforge.server.timings;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * Periodic JFR event reporting the tick timings accumulated by {@link TickTimeAccumulator} for each object type.
+ * <p>
+ * The event is only emitted while a recording is running, so it has no cost otherwise.
+ * The timings are cumulative since the start of the server or the last reset of the accumulator.
+ */
+@Name(TickTimingsEvent.NAME)
+@Label("Tick Timings")
+@Category({ "NeoForge", "Ticking" })
+@Description("Accumulated tick times of each type of ticking object")
+@Period("10 s")
+@StackTrace(false)
+@ApiStatus.Internal
+public class TickTimingsEvent extends Event {
+    public static final String NAME = "neoforge.TickTimings";
+
+    @Label("Kind")
+    public String kind;
+    @Label("Type")
+    public String type;
+    @Label("Ticks")
+    public long count;
+    @Label("Total Time")
+    @Timespan
+    public long totalTime;
+    @Label("Max Time")
+    @Timespan
+    public long maxTime;
+    @Label("Median Time")
+    @Timespan
+    public long medianTime;
+    @Label("99th Percentile Time")
+    @Timespan
+    public long p99Time;
+
+    private static boolean registered;
+
+    /**
+     * Registers the periodic event with the flight recorder, does nothing if it is already registered.
+     */
+    public static synchronized void register() {
+        if (registered)
+            return;
+        registered = true;
+        FlightRecorder.addPeriodicEvent(TickTimingsEvent.class, TickTimingsEvent::emit);
+    }
+
+    private static void emit() {
+        emit(TickTimeAccumulator.BLOCK_ENTITIES);
+        emit(TickTimeAccumulator.ENTITIES);
+    }
+
+    private static void emit(TickTimeAccumulator<?, ?> accumulator) {
+        for (TickTimeAccumulator.TypeTimings timings : accumulator.getTypeTimings()) {
+            TickTimingsEvent event = new TickTimingsEvent();
+            event.kind = accumulator.getName();
+            event.type = timings.type();
+            event.count = timings.count();
+            event.totalTime = timings.totalNanos();
+            event.maxTime = timings.maxNanos();
+            event.medianTime = timings.p50Nanos();
+            event.p99Time = timings.p99Nanos();
+            event.commit();
+        }
+    }
+}
@@ -16,6 +16,8 @@ import net.minecraft.world.level.block.entity.BlockEntity;
 
 /**
  * A class to assist in the collection of data to measure the update times of ticking objects {currently Tile Entities and Entities}
+ * <p>
+ * This records the times of individual objects for a limited duration, see {@link TickTimeAccumulator} for always-on timings aggregated by type and chunk.
  *
  * @param <T>
  */
@@ -51,6 +53,13 @@ public class TimeTracker<T> {
         return builder.build();
     }
 
+    /**
+     * {@return whether the tracker is currently recording}
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
     /**
      * Resets the tracker (clears timings and stops any in-progress timings)
      */
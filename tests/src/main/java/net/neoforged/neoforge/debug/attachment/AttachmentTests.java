@@ -5,11 +5,13 @@
 
 package net.neoforged.neoforge.debug.attachment;
 
+import com.mojang.serialization.Codec;
 import io.netty.buffer.Unpooled;
 import net.minecraft.gametest.framework.GameTest;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
+import net.neoforged.neoforge.attachment.AttachmentInternals;
 import net.neoforged.neoforge.attachment.AttachmentType;
 import net.neoforged.neoforge.items.IItemHandler;
 import net.neoforged.neoforge.items.ItemStackHandler;
@@ -66,4 +68,43 @@ public class AttachmentTests {
             helper.succeed();
         });
     }
+
+    @GameTest
+    @EmptyTemplate
+    @TestHolder(description = "Ensures that attachments modified in place are serialized again, and that immutable attachments reuse their serialized form until they are replaced")
+    static void serializedAttachmentReuseTest(final DynamicTest test, final RegistrationHelper reg) {
+        final var handlerType = reg.registrar(NeoForgeRegistries.Keys.ATTACHMENT_TYPES)
+                .register("mutable_handler", () -> AttachmentType.serializable(() -> new ItemStackHandler(1)).build());
+        final var numberType = reg.registrar(NeoForgeRegistries.Keys.ATTACHMENT_TYPES)
+                .register("immutable_number", () -> AttachmentType.builder(() -> 0).serialize(Codec.INT).immutable().build());
+
+        test.onGameTest(helper -> {
+            ItemStack stack = Items.APPLE.getDefaultInstance();
+            IItemHandler handler = stack.getData(handlerType);
+            handler.insertItem(0, Items.DIAMOND.getDefaultInstance(), false);
+            roundTrip(stack);
+
+            // Modify the handler in place, without going through setData
+            handler.extractItem(0, 1, false);
+            handler.insertItem(0, Items.EMERALD.getDefaultInstance(), false);
+            helper.assertTrue(ItemStack.matches(Items.EMERALD.getDefaultInstance(), roundTrip(stack).getData(handlerType).getStackInSlot(0)), "Modification of a mutable attachment was not serialized");
+
+            stack.setData(numberType, 1);
+            helper.assertTrue(roundTrip(stack).getData(numberType) == 1, "Immutable attachment was not serialized");
+            long skipped = AttachmentInternals.getSkippedSerializations();
+            helper.assertTrue(roundTrip(stack).getData(numberType) == 1, "Immutable attachment was not serialized");
+            helper.assertTrue(AttachmentInternals.getSkippedSerializations() > skipped, "Serialized form of an unchanged immutable attachment was not reused");
+
+            stack.setData(numberType, 2);
+            helper.assertTrue(roundTrip(stack).getData(numberType) == 2, "Replaced immutable attachment was not serialized again");
+
+            helper.succeed();
+        });
+    }
+
+    private static ItemStack roundTrip(ItemStack stack) {
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+        buf.writeItem(stack);
+        return buf.readItem();
+    }
 }
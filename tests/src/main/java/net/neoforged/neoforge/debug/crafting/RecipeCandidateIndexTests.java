@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.neoforge.debug.crafting;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import net.minecraft.core.NonNullList;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.ItemTags;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.Container;
+import net.minecraft.world.SimpleContainer;
+import net.minecraft.world.inventory.CraftingContainer;
+import net.minecraft.world.inventory.TransientCraftingContainer;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.item.crafting.CookingBookCategory;
+import net.minecraft.world.item.crafting.CraftingBookCategory;
+import net.minecraft.world.item.crafting.Ingredient;
+import net.minecraft.world.item.crafting.Recipe;
+import net.minecraft.world.item.crafting.RecipeHolder;
+import net.minecraft.world.item.crafting.RecipeManager;
+import net.minecraft.world.item.crafting.RecipeType;
+import net.minecraft.world.item.crafting.ShapedRecipe;
+import net.minecraft.world.item.crafting.ShapedRecipePattern;
+import net.minecraft.world.item.crafting.ShapelessRecipe;
+import net.minecraft.world.item.crafting.SmeltingRecipe;
+import net.minecraft.world.level.Level;
+import net.neoforged.neoforge.common.crafting.CompoundIngredient;
+import net.neoforged.neoforge.common.crafting.DifferenceIngredient;
+import net.neoforged.neoforge.common.crafting.IntersectionIngredient;
+import net.neoforged.neoforge.common.crafting.NBTIngredient;
+import net.neoforged.neoforge.common.crafting.RecipeCandidateIndex;
+import net.neoforged.testframework.annotation.ForEachTest;
+import net.neoforged.testframework.annotation.TestHolder;
+import net.neoforged.testframework.gametest.EmptyTemplate;
+import net.neoforged.testframework.gametest.ExtendedGameTestHelper;
+
+@ForEachTest(groups = "crafting.candidateindex")
+public class RecipeCandidateIndexTests {
+    private static final int RANDOM_GRIDS = 2000;
+
+    @GameTest
+    @EmptyTemplate
+    @TestHolder(description = "Tests that the recipe candidate index finds the same recipes as a linear search, including recipes with non-simple ingredients")
+    public static void indexedLookupMatchesLinearSearch(ExtendedGameTestHelper helper) {
+        Level level = helper.getLevel();
+        ItemStack damagedAxe = Items.IRON_AXE.getDefaultInstance();
+        damagedAxe.setDamageValue(2);
+        CompoundTag damage = new CompoundTag();
+        damage.putInt(ItemStack.TAG_DAMAGE, 2);
+
+        Map<ResourceLocation, RecipeHolder<?>> crafting = new LinkedHashMap<>();
+        // Simple ingredients, indexed
+        addShapeless(crafting, "diamond_stick", Ingredient.of(Items.DIAMOND), Ingredient.of(Items.STICK));
+        crafting.put(id("ingots"), new RecipeHolder<>(id("ingots"), new ShapedRecipe("", CraftingBookCategory.MISC,
+                new ShapedRecipePattern(2, 1, NonNullList.of(Ingredient.EMPTY, Ingredient.of(Items.IRON_INGOT, Items.GOLD_INGOT), Ingredient.of(Items.STICK)), Optional.empty()),
+                Items.APPLE.getDefaultInstance(), true)));
+        // Only non-simple ingredients, always tested
+        addShapeless(crafting, "nbt_axe", NBTIngredient.of(false, damage, Items.IRON_AXE));
+        addShapeless(crafting, "other_planks", DifferenceIngredient.of(Ingredient.of(ItemTags.PLANKS), Ingredient.of(Items.OAK_PLANKS)));
+        addShapeless(crafting, "shared_planks", IntersectionIngredient.of(Ingredient.of(ItemTags.PLANKS), Ingredient.of(Items.OAK_PLANKS, Items.BIRCH_PLANKS, Items.STICK)));
+        // Mixed ingredients, indexed under the simple one
+        addShapeless(crafting, "gem_stick", CompoundIngredient.of(Ingredient.of(Items.DIAMOND), Ingredient.of(Items.EMERALD)), Ingredient.of(Items.STICK));
+        // Overlaps with the first recipe, so that the recipe order matters
+        addShapeless(crafting, "any_gem_stick", Ingredient.of(Items.DIAMOND, Items.EMERALD), Ingredient.of(Items.STICK));
+
+        Map<ResourceLocation, RecipeHolder<?>> smelting = new LinkedHashMap<>();
+        smelting.put(id("smelt_ingot"), new RecipeHolder<>(id("smelt_ingot"), new SmeltingRecipe("", CookingBookCategory.MISC, Ingredient.of(Items.IRON_INGOT), Items.IRON_NUGGET.getDefaultInstance(), 0, 200)));
+        smelting.put(id("smelt_nbt"), new RecipeHolder<>(id("smelt_nbt"), new SmeltingRecipe("", CookingBookCategory.MISC, NBTIngredient.of(false, damage, Items.IRON_AXE), Items.IRON_NUGGET.getDefaultInstance(), 0, 200)));
+
+        Map<RecipeType<?>, Map<ResourceLocation, RecipeHolder<?>>> recipes = Map.of(RecipeType.CRAFTING, crafting, RecipeType.SMELTING, smelting);
+        RecipeCandidateIndex index = new RecipeCandidateIndex(recipes);
+
+        // Hand-made grids and the recipe they are expected to match, if any
+        List<CraftingContainer> grids = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        grids.add(grid(Items.DIAMOND.getDefaultInstance(), Items.STICK.getDefaultInstance()));
+        expected.add("diamond_stick");
+        grids.add(grid(Items.EMERALD.getDefaultInstance(), Items.STICK.getDefaultInstance()));
+        expected.add("gem_stick");
+        grids.add(grid(Items.GOLD_INGOT.getDefaultInstance(), Items.STICK.getDefaultInstance()));
+        expected.add("ingots");
+        grids.add(grid(damagedAxe.copy()));
+        expected.add("nbt_axe");
+        grids.add(grid(Items.IRON_AXE.getDefaultInstance()));
+        expected.add(null);
+        grids.add(grid(Items.BIRCH_PLANKS.getDefaultInstance()));
+        expected.add("other_planks");
+        grids.add(grid(Items.OAK_PLANKS.getDefaultInstance()));
+        expected.add("shared_planks");
+        grids.add(grid(ItemStack.EMPTY));
+        expected.add(null);
+
+        ItemStack[] pool = {
+                ItemStack.EMPTY, ItemStack.EMPTY, ItemStack.EMPTY, ItemStack.EMPTY, ItemStack.EMPTY, ItemStack.EMPTY,
+                Items.DIAMOND.getDefaultInstance(), Items.EMERALD.getDefaultInstance(), Items.STICK.getDefaultInstance(),
+                Items.IRON_INGOT.getDefaultInstance(), Items.GOLD_INGOT.getDefaultInstance(), Items.OAK_PLANKS.getDefaultInstance(),
+                Items.BIRCH_PLANKS.getDefaultInstance(), Items.IRON_AXE.getDefaultInstance(), damagedAxe
+        };
+        RandomSource random = RandomSource.create(42);
+        for (int i = 0; i < RANDOM_GRIDS; i++) {
+            ItemStack[] items = new ItemStack[random.nextIntBetweenInclusive(1, 3)];
+            for (int j = 0; j < items.length; j++)
+                items[j] = pool[random.nextInt(pool.length)].copy();
+            grids.add(grid(items));
+        }
+
+        for (int i = 0; i < grids.size(); i++) {
+            CraftingContainer grid = grids.get(i);
+            Optional<RecipeHolder<Recipe<CraftingContainer>>> linear = findLinear(crafting, grid, level);
+            Optional<RecipeHolder<Recipe<CraftingContainer>>> indexed = index.findFirst(RecipeCandidateIndexTests.<CraftingContainer>castType(RecipeType.CRAFTING), grid, level);
+            helper.assertTrue(linear.equals(indexed), "Indexed lookup found " + indexed.map(RecipeHolder::id) + " but linear search found " + linear.map(RecipeHolder::id) + " for " + grid.getItems());
+            if (i < expected.size()) {
+                Optional<ResourceLocation> expectedId = Optional.ofNullable(expected.get(i)).map(RecipeCandidateIndexTests::id);
+                helper.assertTrue(indexed.map(RecipeHolder::id).equals(expectedId), "Expected " + expectedId + " but found " + indexed.map(RecipeHolder::id) + " for " + grid.getItems());
+            }
+        }
+
+        for (ItemStack stack : pool) {
+            SimpleContainer furnace = new SimpleContainer(stack.copy());
+            Optional<RecipeHolder<Recipe<Container>>> linear = findLinear(smelting, furnace, level);
+            Optional<RecipeHolder<Recipe<Container>>> indexed = index.findFirst(RecipeCandidateIndexTests.<Container>castType(RecipeType.SMELTING), furnace, level);
+            helper.assertTrue(linear.equals(indexed), "Indexed smelting lookup found " + indexed.map(RecipeHolder::id) + " but linear search found " + linear.map(RecipeHolder::id) + " for " + stack);
+        }
+
+        // The recipe manager of the level uses the index, compare it with a linear search over the loaded recipes too
+        RecipeManager manager = level.getRecipeManager();
+        for (CraftingContainer grid : grids) {
+            Optional<RecipeHolder<Recipe<CraftingContainer>>> linear = manager.getAllRecipesFor(RecipeType.CRAFTING).stream()
+                    .filter(holder -> holder.value().matches(grid, level))
+                    .findFirst()
+                    .map(holder -> RecipeCandidateIndexTests.<CraftingContainer>cast(holder));
+            Optional<RecipeHolder<Recipe<CraftingContainer>>> indexed = manager.getRecipeFor(RecipeType.CRAFTING, grid, level).map(holder -> RecipeCandidateIndexTests.<CraftingContainer>cast(holder));
+            helper.assertTrue(linear.equals(indexed), "Recipe manager found " + indexed.map(RecipeHolder::id) + " but linear search found " + linear.map(RecipeHolder::id) + " for " + grid.getItems());
+        }
+
+        helper.succeed();
+    }
+
+    private static void addShapeless(Map<ResourceLocation, RecipeHolder<?>> recipes, String name, Ingredient... ingredients) {
+        ResourceLocation id = id(name);
+        recipes.put(id, new RecipeHolder<>(id, new ShapelessRecipe("", CraftingBookCategory.MISC, Items.APPLE.getDefaultInstance(), NonNullList.of(Ingredient.EMPTY, ingredients))));
+    }
+
+    private static ResourceLocation id(String name) {
+        return new ResourceLocation("neotests", "candidate_index/" + name);
+    }
+
+    /**
+     * Creates a 3x3 grid holding the given items, the menu is never used since the items are not changed afterwards.
+     */
+    private static CraftingContainer grid(ItemStack... items) {
+        NonNullList<ItemStack> list = NonNullList.withSize(9, ItemStack.EMPTY);
+        for (int i = 0; i < items.length; i++)
+            list.set(i, items[i]);
+        return new TransientCraftingContainer(null, 3, 3, list);
+    }
+
+    private static <C extends Container> Optional<RecipeHolder<Recipe<C>>> findLinear(Map<ResourceLocation, RecipeHolder<?>> recipes, C container, Level level) {
+        for (RecipeHolder<?> holder : recipes.values()) {
+            RecipeHolder<Recipe<C>> cast = cast(holder);
+            if (cast.value().matches(container, level))
+                return Optional.of(cast);
+        }
+        return Optional.empty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <C extends Container> RecipeHolder<Recipe<C>> cast(RecipeHolder<?> holder) {
+        return (RecipeHolder<Recipe<C>>) holder;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <C extends Container> RecipeType<Recipe<C>> castType(RecipeType<?> type) {
+        return (RecipeType<Recipe<C>>) type;
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.neoforge.debug.item;
+
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.network.chat.Component;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.neoforged.neoforge.items.IndexedItemStackHandler;
+import net.neoforged.neoforge.items.ItemHandlerHelper;
+import net.neoforged.neoforge.items.ItemStackHandler;
+import net.neoforged.testframework.annotation.ForEachTest;
+import net.neoforged.testframework.annotation.TestHolder;
+import net.neoforged.testframework.gametest.EmptyTemplate;
+import net.neoforged.testframework.gametest.ExtendedGameTestHelper;
+
+@ForEachTest(groups = "item.indexedhandler")
+public class IndexedItemStackHandlerTests {
+    private static final int OPERATIONS = 5000;
+
+    @GameTest
+    @EmptyTemplate
+    @TestHolder(description = "Tests that IndexedItemStackHandler behaves exactly like ItemStackHandler for the same sequence of operations")
+    public static void indexedHandlerMatchesPlainHandler(ExtendedGameTestHelper helper) {
+        ItemStack namedStone = new ItemStack(Items.STONE);
+        namedStone.setHoverName(Component.literal("Named"));
+        ItemStack[] pool = {
+                new ItemStack(Items.STONE), new ItemStack(Items.DIRT), new ItemStack(Items.DIAMOND),
+                new ItemStack(Items.ENDER_PEARL), new ItemStack(Items.IRON_SWORD), namedStone
+        };
+
+        ItemStackHandler plain = new ItemStackHandler(9);
+        IndexedItemStackHandler indexed = new IndexedItemStackHandler(9);
+
+        // Extracting everything from a slot empties it, which must remove it from the index
+        compare(helper, "insertItem", plain.insertItem(0, new ItemStack(Items.STONE, 5), false), indexed.insertItem(0, new ItemStack(Items.STONE, 5), false), plain, indexed);
+        compare(helper, "extractItem", plain.extractItem(0, 5, false), indexed.extractItem(0, 5, false), plain, indexed);
+        compare(helper, "insertItemAnywhere", plain.insertItemAnywhere(new ItemStack(Items.DIRT, 3), false), indexed.insertItemAnywhere(new ItemStack(Items.DIRT, 3), false), plain, indexed);
+
+        RandomSource random = RandomSource.create(42);
+        for (int i = 0; i < OPERATIONS; i++) {
+            ItemStack item = pool[random.nextInt(pool.length)];
+            ItemStack stack = item.copyWithCount(1 + random.nextInt(item.getMaxStackSize()));
+            int slot = random.nextInt(plain.getSlots());
+            boolean simulate = random.nextBoolean();
+            switch (random.nextInt(9)) {
+                case 0 -> compare(helper, "insertItem", plain.insertItem(slot, stack.copy(), simulate), indexed.insertItem(slot, stack.copy(), simulate), plain, indexed);
+                case 1 -> {
+                    int amount = 1 + random.nextInt(64);
+                    compare(helper, "extractItem", plain.extractItem(slot, amount, simulate), indexed.extractItem(slot, amount, simulate), plain, indexed);
+                }
+                case 2 -> {
+                    // Extract the whole slot from both handlers, emptying it
+                    int amount = plain.getStackInSlot(slot).getCount();
+                    compare(helper, "extractItem", plain.extractItem(slot, amount, simulate), indexed.extractItem(slot, amount, simulate), plain, indexed);
+                }
+                case 3 -> {
+                    plain.setStackInSlot(slot, stack.copy());
+                    indexed.setStackInSlot(slot, stack.copy());
+                    compare(helper, "setStackInSlot", ItemStack.EMPTY, ItemStack.EMPTY, plain, indexed);
+                }
+                case 4 -> compare(helper, "insertItemAnywhere", plain.insertItemAnywhere(stack.copy(), simulate), indexed.insertItemAnywhere(stack.copy(), simulate), plain, indexed);
+                case 5 -> compare(helper, "insertItemStacked", ItemHandlerHelper.insertItemStacked(plain, stack.copy(), simulate), ItemHandlerHelper.insertItemStacked(indexed, stack.copy(), simulate), plain, indexed);
+                case 6 -> {
+                    int amount = 1 + random.nextInt(96);
+                    compare(helper, "extractMatchingItem", plain.extractMatchingItem(s -> s.is(stack.getItem()), amount, simulate), indexed.extractMatchingItem(s -> s.is(stack.getItem()), amount, simulate), plain, indexed);
+                }
+                case 7 -> {
+                    if (random.nextInt(20) == 0) {
+                        int size = 1 + random.nextInt(18);
+                        plain.setSize(size);
+                        indexed.setSize(size);
+                        compare(helper, "setSize", ItemStack.EMPTY, ItemStack.EMPTY, plain, indexed);
+                    }
+                }
+                default -> {
+                    if (random.nextInt(20) == 0) {
+                        // Load the contents of a handler of another size
+                        ItemStackHandler source = new ItemStackHandler(1 + random.nextInt(18));
+                        for (int j = 0; j < source.getSlots(); j++) {
+                            if (random.nextBoolean())
+                                source.setStackInSlot(j, pool[random.nextInt(pool.length)].copy());
+                        }
+                        plain.deserializeNBT(source.serializeNBT());
+                        indexed.deserializeNBT(source.serializeNBT());
+                        compare(helper, "deserializeNBT", ItemStack.EMPTY, ItemStack.EMPTY, plain, indexed);
+                    }
+                }
+            }
+        }
+
+        helper.succeed();
+    }
+
+    private static void compare(ExtendedGameTestHelper helper, String operation, ItemStack plainResult, ItemStack indexedResult, ItemStackHandler plain, IndexedItemStackHandler indexed) {
+        helper.assertTrue(ItemStack.matches(plainResult, indexedResult), operation + " returned " + indexedResult + " instead of " + plainResult);
+        helper.assertTrue(plain.getSlots() == indexed.getSlots(), operation + " left " + indexed.getSlots() + " slots instead of " + plain.getSlots());
+        for (int slot = 0; slot < plain.getSlots(); slot++) {
+            helper.assertTrue(ItemStack.matches(plain.getStackInSlot(slot), indexed.getStackInSlot(slot)), operation + " left " + indexed.getStackInSlot(slot) + " in slot " + slot + " instead of " + plain.getStackInSlot(slot));
+        }
+        helper.assertTrue(plain.isEmpty() == indexed.isEmpty(), operation + " left the handlers with a different emptiness");
+        helper.assertTrue(plain.isFull() == indexed.isFull(), operation + " left the handlers with a different fullness");
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) NeoForged and contributors
+ * SPDX-License-Identifier: LGPL-2.1-only
+ */
+
+package net.neoforged.neoforge.unittest;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+import net.neoforged.neoforge.common.util.RecipeMatcher;
+import org.junit.jupiter.api.Test;
+
+public class RecipeMatcherTest {
+    @Test
+    void mapsInputsToTests() {
+        var inputs = List.of("b", "c", "a");
+        var tests = List.of(is("a"), is("b"), is("c"));
+        // ret[input] = test
+        assertArrayEquals(new int[] { 1, 2, 0 }, RecipeMatcher.findMatches(inputs, tests));
+    }
+
+    @Test
+    void findsMatchingThroughAugmentingPaths() {
+        // A greedy assignment of each test to its first matching input fails here:
+        // test 0 takes "a" that test 1 needs, and test 1 takes "b" that test 2 needs.
+        var inputs = List.of("a", "b", "c");
+        var tests = List.of(anyOf("a", "b", "c"), anyOf("a", "b"), is("b"));
+        int[] matches = RecipeMatcher.findMatches(inputs, tests);
+        assertArrayEquals(new int[] { 1, 2, 0 }, matches);
+    }
+
+    @Test
+    void findsMatchingForLongAugmentingChain() {
+        // Test i matches inputs i and i + 1, except the last test which only matches input 0.
+        // Matching each test to its first input leaves the last test without an input, which requires
+        // flipping the whole chain.
+        int size = 8;
+        var inputs = new ArrayList<Integer>();
+        var tests = new ArrayList<Predicate<Integer>>();
+        for (int i = 0; i < size; i++) {
+            int test = i;
+            inputs.add(i);
+            tests.add(test == size - 1 ? input -> input == 0 : input -> input == test || input == test + 1);
+        }
+        assertValidMatching(inputs, tests, RecipeMatcher.findMatches(inputs, tests));
+    }
+
+    @Test
+    void rejectsSizeMismatch() {
+        assertNull(RecipeMatcher.findMatches(List.of("a", "b"), List.of(anyOf("a", "b"))));
+        assertNull(RecipeMatcher.findMatches(List.of("a"), List.of(anyOf("a", "b"), anyOf("a", "b"))));
+    }
+
+    @Test
+    void rejectsUnmatchedInput() {
+        assertNull(RecipeMatcher.findMatches(List.of("a", "b", "z"), List.of(anyOf("a", "b"), anyOf("a", "b"), anyOf("a", "b"))));
+    }
+
+    @Test
+    void rejectsUnmatchedTest() {
+        assertNull(RecipeMatcher.findMatches(List.of("a", "b"), List.of(is("a"), is("z"))));
+    }
+
+    @Test
+    void rejectsWhenNoPerfectMatchingExists() {
+        // Every input and every test matches something, but two tests compete for the single input "a"
+        var inputs = List.of("a", "b", "c");
+        var tests = List.of(is("a"), is("a"), anyOf("a", "b", "c"));
+        assertNull(RecipeMatcher.findMatches(inputs, tests));
+    }
+
+    @Test
+    void matchesEmptyLists() {
+        assertArrayEquals(new int[0], RecipeMatcher.findMatches(List.<String>of(), List.<Predicate<String>>of()));
+    }
+
+    @Test
+    void agreesWithExhaustiveSearch() {
+        var random = new Random(42);
+        for (int iteration = 0; iteration < 2000; iteration++) {
+            int size = 1 + random.nextInt(7);
+            boolean[][] edges = new boolean[size][size];
+            for (int test = 0; test < size; test++)
+                for (int input = 0; input < size; input++)
+                    edges[test][input] = random.nextInt(3) == 0;
+
+            var inputs = new ArrayList<Integer>();
+            var tests = new ArrayList<Predicate<Integer>>();
+            for (int i = 0; i < size; i++) {
+                boolean[] row = edges[i];
+                inputs.add(i);
+                tests.add(input -> row[input]);
+            }
+
+            int[] matches = RecipeMatcher.findMatches(inputs, tests);
+            if (hasPerfectMatching(edges, 0, new boolean[size])) {
+                assertValidMatching(inputs, tests, matches);
+            } else {
+                assertNull(matches);
+            }
+        }
+    }
+
+    private static <T> void assertValidMatching(List<T> inputs, List<? extends Predicate<T>> tests, int[] matches) {
+        assertNotNull(matches);
+        assertEquals(inputs.size(), matches.length);
+        boolean[] used = new boolean[tests.size()];
+        for (int input = 0; input < matches.length; input++) {
+            int test = matches[input];
+            assertTrue(test >= 0 && test < tests.size(), "Input " + input + " is not mapped to a test");
+            assertTrue(!used[test], "Test " + test + " is used by several inputs");
+            used[test] = true;
+            assertTrue(tests.get(test).test(inputs.get(input)), "Input " + input + " does not match test " + test);
+        }
+    }
+
+    private static boolean hasPerfectMatching(boolean[][] edges, int test, boolean[] usedInputs) {
+        if (test == edges.length)
+            return true;
+        for (int input = 0; input < usedInputs.length; input++) {
+            if (edges[test][input] && !usedInputs[input]) {
+                usedInputs[input] = true;
+                boolean found = hasPerfectMatching(edges, test + 1, usedInputs);
+                usedInputs[input] = false;
+                if (found)
+                    return true;
+            }
+        }
+        return false;
+    }
+
+    private static Predicate<String> is(String value) {
+        return value::equals;
+    }
+
+    private static Predicate<String> anyOf(String... values) {
+        return Set.of(values)::contains;
+    }
+}